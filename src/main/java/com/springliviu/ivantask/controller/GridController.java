@@ -1,22 +1,104 @@
 package com.springliviu.ivantask.controller;
 
+import com.springliviu.ivantask.logic.FigureGraph;
+import com.springliviu.ivantask.logic.GraphClassifier;
+import com.springliviu.ivantask.model.ColoredPoint;
+import com.springliviu.ivantask.model.Edge;
+import com.springliviu.ivantask.model.GraphRequest;
+import com.springliviu.ivantask.render.FigureRenderer;
 import com.springliviu.ivantask.service.GridService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 public class GridController {
 
+    private static final MediaType SVG = MediaType.parseMediaType("image/svg+xml");
+
     private final GridService gridService;
+    private final FigureRenderer figureRenderer;
+    private final int maxVertices;
+    private final int maxEdges;
 
-    public GridController(GridService gridService) {
+    public GridController(GridService gridService, FigureRenderer figureRenderer,
+                          @Value("${gridmagic.classify.max-vertices:200000}") int maxVertices,
+                          @Value("${gridmagic.classify.max-edges:200000}") int maxEdges) {
         this.gridService = gridService;
+        this.figureRenderer = figureRenderer;
+        this.maxVertices = maxVertices;
+        this.maxEdges = maxEdges;
     }
 
     @GetMapping("/api/generate")
     public Map<String, Object> generateFigure() {
         return gridService.generateFigure();
     }
+
+    @GetMapping("/api/generate.svg")
+    public ResponseEntity<byte[]> generateSvg() {
+        return renderFigure(FigureRenderer.Format.SVG, SVG);
+    }
+
+    @GetMapping("/api/generate.png")
+    public ResponseEntity<byte[]> generatePng() {
+        return renderFigure(FigureRenderer.Format.PNG, MediaType.IMAGE_PNG);
+    }
+
+    /**
+     * Классификация произвольного графа: тип каждой компоненты связности и есть ли пересечения рёбер.
+     * Некорректный или слишком большой граф — 400
+     */
+    @PostMapping("/api/classify")
+    public ResponseEntity<Map<String, Object>> classifyGraph(@RequestBody GraphRequest request) {
+        if (request.getPoints() != null && request.getPoints().size() > maxVertices) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Не больше " + maxVertices + " точек"));
+        }
+        if (request.getEdges() != null && request.getEdges().size() > maxEdges) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Не больше " + maxEdges + " рёбер"));
+        }
+        FigureGraph graph;
+        try {
+            graph = FigureGraph.of(request.getPoints(), request.getEdges());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        GraphClassifier.Result result = GraphClassifier.classify(graph);
+
+        List<Map<String, Object>> components = new ArrayList<>();
+        for (int c = 0; c < graph.componentCount(); c++) {
+            components.add(Map.of("vertices", graph.componentVertices(c), "type", result.getComponentTypes().get(c)));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("components", components);
+        response.put("crossings", result.hasCrossings());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Генерирую фигуру и отдаю картинкой; тип фигуры — в заголовке X-Figure-Type,
+     * кириллица закодирована percent-encoding по RFC 3986 (пробел — %20, а не +)
+     */
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<byte[]> renderFigure(FigureRenderer.Format format, MediaType mediaType) {
+        Map<String, Object> figure = gridService.generateFigure();
+        List<ColoredPoint> points = (List<ColoredPoint>) figure.get("points");
+        List<Edge> edges = (List<Edge>) figure.get("edges");
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header("X-Figure-Type", UriUtils.encode((String) figure.get("type"), StandardCharsets.UTF_8))
+                .body(figureRenderer.render(points, edges, format));
+    }
 }
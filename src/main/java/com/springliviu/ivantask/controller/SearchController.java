@@ -0,0 +1,77 @@
+package com.springliviu.ivantask.controller;
+
+import com.springliviu.ivantask.service.DistributedSearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final DistributedSearchService searchService;
+
+    public SearchController(DistributedSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Поиск фигуры нужного типа по всем узлам. 204 — если во всём диапазоне ничего нет,
+     * 503 с {@code "complete": false} — если часть диапазона не проверена: пир отказал
+     * или не ответил, либо истёк срок
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> search(@RequestParam String type,
+                                                      @RequestParam(defaultValue = "1000000") long seeds) {
+        return respond(() -> searchService.search(type, seeds));
+    }
+
+    /**
+     * Часть поиска, которую координатор поручил этому узлу
+     */
+    @GetMapping("/local")
+    public ResponseEntity<Map<String, Object>> searchLocal(@RequestParam String id, @RequestParam String type,
+                                                           @RequestParam long from, @RequestParam long to) {
+        if (!isSearchId(id)) return ResponseEntity.badRequest().body(Map.of("error", "Некорректный id поиска"));
+        return respond(() -> searchService.searchLocal(id, type, from, to));
+    }
+
+    @DeleteMapping("/local/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable String id) {
+        if (!isSearchId(id)) return ResponseEntity.badRequest().build();
+        searchService.cancel(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<Map<String, Object>> respond(Supplier<Optional<Map<String, Object>>> search) {
+        try {
+            return search.get()
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.noContent().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (DistributedSearchService.SearchIncompleteException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage(), "complete", false));
+        } catch (DistributedSearchService.SearchRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Координатор присваивает поиску UUID; всё остальное не принимаю
+     */
+    private static boolean isSearchId(String id) {
+        try {
+            return UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.springliviu.ivantask.logic;
+
+import com.springliviu.ivantask.model.Edge;
+import com.springliviu.ivantask.model.Point;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Произвольный граф на точках сетки: несколько компонент, деревья, общие вершины.
+ * <p>
+ * Смежность хранится в сжатом виде (CSR): соседи вершины {@code v} лежат в
+ * {@code neighbours[offsets[v] .. offsets[v + 1])}, рядом — номера соответствующих рёбер.
+ * Компоненты связности считаются сразу при построении, и для каждой заранее собраны
+ * её вершины и рёбра — так их можно классифицировать независимо и параллельно.
+ */
+public final class FigureGraph {
+
+    final int[] xs, ys;
+    final int[] from, to;
+    private final int[] offsets, neighbours, incidentEdges;
+    private final int[] component;
+    private final int[] componentVertexOffsets, componentVertices;
+    private final int[] componentEdgeOffsets, componentEdges;
+
+    private FigureGraph(int[] xs, int[] ys, int[] from, int[] to) {
+        this.xs = xs;
+        this.ys = ys;
+        this.from = from;
+        this.to = to;
+        int n = xs.length, m = from.length;
+
+        // CSR: сначала степени, потом префиксные суммы, потом раскладка
+        offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[from[e] + 1]++;
+            offsets[to[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+        neighbours = new int[2 * m];
+        incidentEdges = new int[2 * m];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            neighbours[cursor[from[e]]] = to[e];
+            incidentEdges[cursor[from[e]]++] = e;
+            neighbours[cursor[to[e]]] = from[e];
+            incidentEdges[cursor[to[e]]++] = e;
+        }
+
+        // Компоненты — через систему непересекающихся множеств, без рекурсии
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) parent[v] = v;
+        for (int e = 0; e < m; e++) {
+            int a = find(parent, from[e]), b = find(parent, to[e]);
+            if (a != b) parent[Math.max(a, b)] = Math.min(a, b);
+        }
+        component = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int root = find(parent, v);
+            component[v] = root == v ? count++ : component[root];
+        }
+
+        componentVertexOffsets = new int[count + 1];
+        componentVertices = new int[n];
+        for (int v = 0; v < n; v++) componentVertexOffsets[component[v] + 1]++;
+        for (int c = 0; c < count; c++) componentVertexOffsets[c + 1] += componentVertexOffsets[c];
+        cursor = Arrays.copyOf(componentVertexOffsets, count);
+        for (int v = 0; v < n; v++) componentVertices[cursor[component[v]]++] = v;
+
+        componentEdgeOffsets = new int[count + 1];
+        componentEdges = new int[m];
+        for (int e = 0; e < m; e++) componentEdgeOffsets[component[from[e]] + 1]++;
+        for (int c = 0; c < count; c++) componentEdgeOffsets[c + 1] += componentEdgeOffsets[c];
+        cursor = Arrays.copyOf(componentEdgeOffsets, count);
+        for (int e = 0; e < m; e++) componentEdges[cursor[component[from[e]]]++] = e;
+    }
+
+    public static FigureGraph of(List<? extends Point> points, List<Edge> edges) {
+        if (points == null || edges == null) {
+            throw new IllegalArgumentException("Нужны списки точек и рёбер");
+        }
+        int n = points.size();
+        int[] xs = new int[n], ys = new int[n];
+        for (int v = 0; v < n; v++) {
+            Point p = points.get(v);
+            if (p == null) throw new IllegalArgumentException("Точка " + v + " не задана");
+            if (Math.abs(p.getX()) > SegmentSweep.MAX_COORD || Math.abs(p.getY()) > SegmentSweep.MAX_COORD) {
+                throw new IllegalArgumentException("Координаты точки " + v + " вне допустимого диапазона");
+            }
+            xs[v] = p.getX();
+            ys[v] = p.getY();
+        }
+
+        int m = edges.size();
+        int[] from = new int[m], to = new int[m];
+        for (int e = 0; e < m; e++) {
+            Edge edge = edges.get(e);
+            if (edge == null) throw new IllegalArgumentException("Ребро " + e + " не задано");
+            if (edge.getFrom() < 0 || edge.getFrom() >= n || edge.getTo() < 0 || edge.getTo() >= n) {
+                throw new IllegalArgumentException("Ребро " + e + " ссылается на несуществующую точку");
+            }
+            from[e] = edge.getFrom();
+            to[e] = edge.getTo();
+        }
+        return new FigureGraph(xs, ys, from, to);
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    public int vertexCount() { return xs.length; }
+
+    public int edgeCount() { return from.length; }
+
+    public int degree(int v) { return offsets[v + 1] - offsets[v]; }
+
+    public int componentCount() { return componentVertexOffsets.length - 1; }
+
+    public int component(int v) { return component[v]; }
+
+    public int[] componentVertices(int c) {
+        return Arrays.copyOfRange(componentVertices, componentVertexOffsets[c], componentVertexOffsets[c + 1]);
+    }
+
+    public int[] componentEdges(int c) {
+        return Arrays.copyOfRange(componentEdges, componentEdgeOffsets[c], componentEdgeOffsets[c + 1]);
+    }
+
+    /**
+     * Соседняя вершина по записи смежности {@code i} из диапазона вершины
+     */
+    int neighbour(int i) { return neighbours[i]; }
+
+    int incidentEdge(int i) { return incidentEdges[i]; }
+
+    int firstAdjacency(int v) { return offsets[v]; }
+}
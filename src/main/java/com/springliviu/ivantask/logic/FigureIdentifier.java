@@ -2,44 +2,81 @@ package com.springliviu.ivantask.logic;
 
 import com.springliviu.ivantask.model.Edge;
 import com.springliviu.ivantask.model.Point;
+import com.springliviu.ivantask.profiling.Stage;
+import com.springliviu.ivantask.profiling.StageEvent;
+import com.springliviu.ivantask.profiling.StageProfiler;
 
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
 import static java.lang.Math.*;
 
+/**
+ * Вся геометрия точная, в long: при координатах до {@link SegmentSweep#MAX_COORD} по модулю
+ * векторные произведения и квадраты длин не переполняются, и EPSILON не нужен.
+ */
 public class FigureIdentifier {
 
-    private static final double EPSILON = 1e-5;
-
     /**
      * Главный метод — определяет тип фигуры по заданным точкам и рёбрам.
      * Все переданные точки уже отсортированы так, как они будут отрисованы.
      */
     public static String identifyFigure(List<Point> points, List<Edge> edges) {
+        // Рёбра ссылаются на исходные индексы, поэтому пересечения проверяю по исходным точкам —
+        // удаление дублей и промежуточных точек форму не меняет
+        return identifyFigure(points, () -> hasSelfIntersections(points, edges));
+    }
+
+    /**
+     * Та же классификация, но проверку самопересечений выполняет вызывающий
+     * (например, {@link GraphClassifier} для больших циклов)
+     */
+    static String identifyFigure(List<Point> points, BooleanSupplier selfIntersections) {
         // Удаляю повторяющиеся точки по координатам
-        points = deduplicate(points);
+        try (StageEvent stage = StageProfiler.begin(Stage.DEDUPLICATE)) {
+            points = deduplicate(points);
+        }
 
         // Удаляю промежуточные точки, лежащие на одной прямой между соседями
-        points = removeInlinePoints(points);
-
-        // Простейшие случаи
-        if (points.size() == 1) return "точка";
-        if (points.size() == 2) return "отрезок";
+        try (StageEvent stage = StageProfiler.begin(Stage.REMOVE_INLINE_POINTS)) {
+            points = removeInlinePoints(points);
+        }
 
-        // Проверка: все точки на одной прямой — это фрагмент
-        if (areAllPointsColinear(points)) return "фрагмент";
+        String simple;
+        try (StageEvent stage = StageProfiler.begin(Stage.CLASSIFICATION)) {
+            simple = classifySimple(points);
+        }
+        if (simple != null) return simple;
 
         // Проверка на самопересечения по заданным рёбрам
-        if (hasSelfIntersections(points, edges)) {
-            return "фигура с самопересечениями: " + getNameBySides(points.size());
+        boolean selfIntersecting;
+        try (StageEvent stage = StageProfiler.begin(Stage.SELF_INTERSECTIONS)) {
+            selfIntersecting = selfIntersections.getAsBoolean();
         }
 
         // Анализ конкретных фигур
-        return switch (points.size()) {
-            case 3 -> "треугольник: " + classifyTriangle(points);
-            case 4 -> "четырёхугольник: четырёхугольник";
-            default -> getNameBySides(points.size());
-        };
+        try (StageEvent stage = StageProfiler.begin(Stage.CLASSIFICATION)) {
+            if (selfIntersecting) {
+                return "фигура с самопересечениями: " + getNameBySides(points.size());
+            }
+            return switch (points.size()) {
+                case 3 -> "треугольник: " + classifyTriangle(points);
+                case 4 -> "четырёхугольник: четырёхугольник";
+                default -> getNameBySides(points.size());
+            };
+        }
+    }
+
+    /**
+     * Простейшие случаи: точка, отрезок или фрагмент; null — если это многоугольник
+     */
+    private static String classifySimple(List<Point> points) {
+        if (points.size() == 1) return "точка";
+        if (points.size() == 2) return "отрезок";
+
+        // Проверка: все точки на одной прямой — это фрагмент
+        if (areAllPointsColinear(points)) return "фрагмент";
+        return null;
     }
 
     /**
@@ -92,20 +129,20 @@ public class FigureIdentifier {
      * Проверка: три точки лежат на одной прямой
      */
     private static boolean isColinear(Point a, Point b, Point c) {
-        return abs((b.getX() - a.getX()) * (c.getY() - a.getY()) -
-                (b.getY() - a.getY()) * (c.getX() - a.getX())) < EPSILON;
+        return orientation(a, b, c) == 0;
     }
 
     /**
-     * Классификация треугольника: прямоугольный, равнобедренный, разносторонний
+     * Классификация треугольника: прямоугольный, равнобедренный, разносторонний.
+     * Сравниваю квадраты длин сторон — они целые, поэтому сравнение точное
      */
     private static String classifyTriangle(List<Point> t) {
-        double a = distance(t.get(0), t.get(1));
-        double b = distance(t.get(1), t.get(2));
-        double c = distance(t.get(2), t.get(0));
+        long a = squaredDistance(t.get(0), t.get(1));
+        long b = squaredDistance(t.get(1), t.get(2));
+        long c = squaredDistance(t.get(2), t.get(0));
 
         boolean isRight = isRightAngle(a, b, c);
-        boolean isIsosceles = abs(a - b) < EPSILON || abs(b - c) < EPSILON || abs(a - c) < EPSILON;
+        boolean isIsosceles = a == b || b == c || a == c;
 
         if (isRight) return "прямоугольный";
         if (isIsosceles) return "равнобедренный";
@@ -113,21 +150,20 @@ public class FigureIdentifier {
     }
 
     /**
-     * Проверяю, есть ли прямой угол в треугольнике
+     * Проверяю, есть ли прямой угол в треугольнике, по квадратам сторон
      */
-    private static boolean isRightAngle(double a, double b, double c) {
-        double a2 = a * a, b2 = b * b, c2 = c * c;
-        return abs(a2 + b2 - c2) < EPSILON ||
-                abs(a2 + c2 - b2) < EPSILON ||
-                abs(b2 + c2 - a2) < EPSILON;
+    private static boolean isRightAngle(long a2, long b2, long c2) {
+        return a2 + b2 == c2 || a2 + c2 == b2 || b2 + c2 == a2;
     }
 
-    private static double distance(Point p1, Point p2) {
-        return sqrt(pow(p1.getX() - p2.getX(), 2) + pow(p1.getY() - p2.getY(), 2));
+    private static long squaredDistance(Point p1, Point p2) {
+        long dx = (long) p1.getX() - p2.getX(), dy = (long) p1.getY() - p2.getY();
+        return dx * dx + dy * dy;
     }
 
     /**
-     * Проверка на самопересечения — только между несмежными рёбрами
+     * Проверка на самопересечения: у двух рёбер не должно быть общих точек, кроме общего конца.
+     * Правило то же, что у {@link SegmentSweep}, так что {@link GraphClassifier} на том же цикле отвечает так же.
      */
     private static boolean hasSelfIntersections(List<Point> points, List<Edge> edges) {
         for (int i = 0; i < edges.size(); i++) {
@@ -135,8 +171,6 @@ public class FigureIdentifier {
             Point a2 = points.get(edges.get(i).getTo());
 
             for (int j = i + 1; j < edges.size(); j++) {
-                if (isAdjacent(edges, i, j)) continue;
-
                 Point b1 = points.get(edges.get(j).getFrom());
                 Point b2 = points.get(edges.get(j).getTo());
 
@@ -147,36 +181,35 @@ public class FigureIdentifier {
     }
 
     /**
-     * Проверяю, являются ли рёбра смежными (соседними) или соединены одной вершиной
+     * Пересекаются ли отрезки где-то кроме общего конца. Конец одного ребра внутри другого
+     * и наложение на одной прямой (например, ломаная, идущая назад по себе) — пересечение.
+     * Рёбра нулевой длины и повтор того же ребра ничего нового не рисуют и не считаются.
      */
-    private static boolean isAdjacent(List<Edge> edges, int i, int j) {
-        Edge e1 = edges.get(i);
-        Edge e2 = edges.get(j);
-        return Math.abs(i - j) == 1 ||
-                (i == 0 && j == edges.size() - 1) ||
-                sharesVertex(e1, e2);
-    }
+    private static boolean segmentsIntersect(Point a, Point b, Point c, Point d) {
+        if (a.equals(b) || c.equals(d)) return false;
+        if ((a.equals(c) && b.equals(d)) || (a.equals(d) && b.equals(c))) return false;
+
+        int o1 = orientation(a, b, c), o2 = orientation(a, b, d);
+        int o3 = orientation(c, d, a), o4 = orientation(c, d, b);
+        if (o1 == 0 && o2 == 0) {
+            // На одной прямой: сравниваю проекции на ось, вдоль которой прямая не вырождена
+            boolean alongX = a.getX() != b.getX();
+            int a1 = alongX ? a.getX() : a.getY(), a2 = alongX ? b.getX() : b.getY();
+            int c1 = alongX ? c.getX() : c.getY(), c2 = alongX ? d.getX() : d.getY();
+            return max(min(a1, a2), min(c1, c2)) < min(max(a1, a2), max(c1, c2));
+        }
+        if (o1 * o2 > 0 || o3 * o4 > 0) return false;
 
-    private static boolean sharesVertex(Edge e1, Edge e2) {
-        return e1.getFrom() == e2.getFrom() ||
-                e1.getFrom() == e2.getTo() ||
-                e1.getTo() == e2.getFrom() ||
-                e1.getTo() == e2.getTo();
+        // Общая точка есть; не пересечение, только если это общий конец
+        return !(a.equals(c) || a.equals(d) || b.equals(c) || b.equals(d));
     }
 
     /**
-     * Проверка пересечения двух отрезков (без касаний по вершинам)
+     * Знак векторного произведения (b - a) x (c - a), точно в long
      */
-    private static boolean segmentsIntersect(Point a, Point b, Point c, Point d) {
-        if (a.equals(c) || a.equals(d) || b.equals(c) || b.equals(d)) return false;
-
-        return ccw(a, c, d) != ccw(b, c, d) &&
-                ccw(a, b, c) != ccw(a, b, d);
-    }
-
-    private static boolean ccw(Point a, Point b, Point c) {
-        return (c.getY() - a.getY()) * (b.getX() - a.getX()) >
-                (b.getY() - a.getY()) * (c.getX() - a.getX());
+    private static int orientation(Point a, Point b, Point c) {
+        return Long.signum(((long) b.getX() - a.getX()) * ((long) c.getY() - a.getY())
+                - ((long) b.getY() - a.getY()) * ((long) c.getX() - a.getX()));
     }
 
     /**
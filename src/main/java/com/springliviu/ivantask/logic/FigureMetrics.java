@@ -0,0 +1,185 @@
+package com.springliviu.ivantask.logic;
+
+import com.springliviu.ivantask.model.Point;
+
+import java.util.List;
+
+/**
+ * Пакетный расчёт метрик фигур: площадь, периметр, центр вершин и углы.
+ * <p>
+ * Координаты хранятся не объектами, а двумя плоскими массивами {@code xs}/{@code ys}
+ * (struct-of-arrays). Фигура {@code f} занимает отрезок {@code [offsets[f], offsets[f + 1])},
+ * так что {@code offsets.length == figureCount + 1}. Фигуры из трёх и более точек считаются
+ * замкнутыми, из одной-двух — открытой ломаной, как и рёбра в {@code GridService}.
+ * <p>
+ * Выигрыш даёт именно раскладка: точки лежат подряд в двух {@code int[]}, без объектов,
+ * боксинга и указателей, так что проход по буферу идёт последовательно по памяти.
+ * Векторизацию циклов я не обещаю — редукции по {@code double} и {@code atan2} C2 не векторизует.
+ * Разности координат считаются в {@code long}, так что годится любой {@code int}.
+ */
+public final class FigureMetrics {
+
+    private FigureMetrics() {}
+
+    /**
+     * Считаю метрики для всех фигур буфера
+     */
+    public static Result compute(int[] xs, int[] ys, int[] offsets) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs и ys должны быть одной длины");
+        }
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != xs.length) {
+            throw new IllegalArgumentException("offsets должны начинаться с 0 и заканчиваться длиной буфера");
+        }
+        // Проверяю все границы заранее, чтобы ядро не упало на середине с ArrayIndexOutOfBounds
+        for (int f = 1; f < offsets.length; f++) {
+            if (offsets[f] < offsets[f - 1]) throw new IllegalArgumentException("offsets должны не убывать");
+        }
+
+        int count = offsets.length - 1;
+        Result result = new Result(count);
+        for (int f = 0; f < count; f++) {
+            int from = offsets[f];
+            int to = offsets[f + 1];
+
+            result.area[f] = Math.abs(twiceSignedArea(xs, ys, from, to)) / 2.0;
+            result.perimeter[f] = perimeter(xs, ys, from, to);
+            result.centroidX[f] = mean(xs, from, to);
+            result.centroidY[f] = mean(ys, from, to);
+            angleRange(xs, ys, from, to, result, f);
+        }
+        return result;
+    }
+
+    /**
+     * Упаковываю списки точек в SoA-буфер и считаю метрики
+     */
+    public static Result compute(List<? extends List<? extends Point>> figures) {
+        int total = 0;
+        for (List<? extends Point> figure : figures) total += figure.size();
+
+        int[] xs = new int[total];
+        int[] ys = new int[total];
+        int[] offsets = new int[figures.size() + 1];
+        int k = 0;
+        for (int f = 0; f < figures.size(); f++) {
+            for (Point p : figures.get(f)) {
+                xs[k] = p.getX();
+                ys[k] = p.getY();
+                k++;
+            }
+            offsets[f + 1] = k;
+        }
+        return compute(xs, ys, offsets);
+    }
+
+    /**
+     * Удвоенная ориентированная площадь по формуле шнурков — точное целое,
+     * пока сам результат помещается в long (промежуточные переполнения взаимно гасятся)
+     */
+    public static long twiceSignedArea(int[] xs, int[] ys, int from, int to) {
+        if (to - from < 3) return 0;
+        long sum = 0;
+        for (int i = from; i < to - 1; i++) {
+            sum += (long) xs[i] * ys[i + 1] - (long) xs[i + 1] * ys[i];
+        }
+        // Замыкающее ребро
+        sum += (long) xs[to - 1] * ys[from] - (long) xs[from] * ys[to - 1];
+        return sum;
+    }
+
+    /**
+     * Длина ломаной; для трёх и более точек — с замыкающим ребром
+     */
+    public static double perimeter(int[] xs, int[] ys, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to - 1; i++) {
+            double dx = (long) xs[i + 1] - xs[i];
+            double dy = (long) ys[i + 1] - ys[i];
+            sum += Math.sqrt(dx * dx + dy * dy);
+        }
+        if (to - from >= 3) {
+            double dx = (long) xs[from] - xs[to - 1];
+            double dy = (long) ys[from] - ys[to - 1];
+            sum += Math.sqrt(dx * dx + dy * dy);
+        }
+        return sum;
+    }
+
+    /**
+     * Среднее значение координаты (центр вершин, а не центр масс площади)
+     */
+    public static double mean(int[] values, int from, int to) {
+        if (to <= from) return 0;
+        long sum = 0;
+        for (int i = from; i < to; i++) sum += values[i];
+        return (double) sum / (to - from);
+    }
+
+    /**
+     * Минимальный и максимальный угол между соседними рёбрами в вершинах, в радианах.
+     * Для фигур меньше трёх точек углов нет — записываю NaN.
+     */
+    private static void angleRange(int[] xs, int[] ys, int from, int to, Result result, int f) {
+        int n = to - from;
+        if (n < 3) {
+            result.minAngle[f] = Double.NaN;
+            result.maxAngle[f] = Double.NaN;
+            return;
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int curr = from; curr < to; curr++) {
+            int prev = curr == from ? to - 1 : curr - 1;
+            int next = curr == to - 1 ? from : curr + 1;
+
+            long ax = (long) xs[prev] - xs[curr], ay = (long) ys[prev] - ys[curr];
+            long bx = (long) xs[next] - xs[curr], by = (long) ys[next] - ys[curr];
+            // Произведения разностей до 2^64 в long не помещаются — считаю в double
+            double cross = (double) ax * by - (double) ay * bx;
+            double dot = (double) ax * bx + (double) ay * by;
+            double angle = Math.atan2(Math.abs(cross), dot);
+
+            min = Math.min(min, angle);
+            max = Math.max(max, angle);
+        }
+        result.minAngle[f] = min;
+        result.maxAngle[f] = max;
+    }
+
+    /**
+     * Результат расчёта — тоже в виде параллельных массивов, по элементу на фигуру
+     */
+    public static final class Result {
+        private final double[] area;
+        private final double[] perimeter;
+        private final double[] centroidX;
+        private final double[] centroidY;
+        private final double[] minAngle;
+        private final double[] maxAngle;
+
+        private Result(int count) {
+            this.area = new double[count];
+            this.perimeter = new double[count];
+            this.centroidX = new double[count];
+            this.centroidY = new double[count];
+            this.minAngle = new double[count];
+            this.maxAngle = new double[count];
+        }
+
+        public int size() { return area.length; }
+
+        public double[] getArea() { return area; }
+
+        public double[] getPerimeter() { return perimeter; }
+
+        public double[] getCentroidX() { return centroidX; }
+
+        public double[] getCentroidY() { return centroidY; }
+
+        public double[] getMinAngle() { return minAngle; }
+
+        public double[] getMaxAngle() { return maxAngle; }
+    }
+}
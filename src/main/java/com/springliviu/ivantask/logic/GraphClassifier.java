@@ -0,0 +1,92 @@
+package com.springliviu.ivantask.logic;
+
+import com.springliviu.ivantask.model.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Классификация произвольного графа по компонентам связности.
+ * <p>
+ * Каждая компонента разбирается отдельно и параллельно: точка, отрезок/ломаная, дерево,
+ * простой цикл (его тип определяет {@link FigureIdentifier}) или граф общего вида.
+ * Пересечения рёбер ищет {@link SegmentSweep} — и внутри компоненты, и для рисунка целиком.
+ */
+public final class GraphClassifier {
+
+    private GraphClassifier() {}
+
+    public static Result classify(FigureGraph graph) {
+        int[] allEdges = new int[graph.edgeCount()];
+        Arrays.setAll(allEdges, e -> e);
+        boolean crossings = SegmentSweep.hasCrossing(graph.xs, graph.ys, graph.from, graph.to, allEdges);
+
+        // Пересечение внутри компоненты — это и пересечение во всём рисунке,
+        // так что на плоском рисунке отдельные проходы по компонентам не нужны
+        String[] types = IntStream.range(0, graph.componentCount()).parallel()
+                .mapToObj(c -> classifyComponent(graph, c, crossings))
+                .toArray(String[]::new);
+        return new Result(List.of(types), crossings);
+    }
+
+    private static String classifyComponent(FigureGraph graph, int c, boolean anyCrossings) {
+        int[] vertices = graph.componentVertices(c);
+        int[] edges = graph.componentEdges(c);
+        int v = vertices.length, e = edges.length;
+        if (e == 0) return "точка";
+
+        int maxDegree = 0;
+        for (int vertex : vertices) maxDegree = Math.max(maxDegree, graph.degree(vertex));
+
+        // Сумма степеней 2e = 2v и максимум 2 — значит, все степени ровно 2: простой цикл
+        if (e == v && maxDegree == 2) {
+            return FigureIdentifier.identifyFigure(walkCycle(graph, vertices[0], v),
+                    () -> anyCrossings && SegmentSweep.hasCrossing(graph.xs, graph.ys, graph.from, graph.to, edges));
+        }
+
+        boolean crossing = anyCrossings && SegmentSweep.hasCrossing(graph.xs, graph.ys, graph.from, graph.to, edges);
+        if (e == v - 1) {
+            if (maxDegree <= 2) {
+                if (crossing) return "ломаная с самопересечениями";
+                return v == 2 ? "отрезок" : "ломаная";
+            }
+            return crossing ? "дерево с пересечениями рёбер" : "дерево";
+        }
+        return crossing ? "граф с пересечениями рёбер" : "плоский граф";
+    }
+
+    /**
+     * Обхожу цикл от вершины start, каждый раз уходя не по тому ребру, по которому пришёл
+     */
+    private static List<Point> walkCycle(FigureGraph graph, int start, int length) {
+        List<Point> cycle = new ArrayList<>(length);
+        int current = start, cameBy = -1;
+        for (int k = 0; k < length; k++) {
+            cycle.add(new Point(graph.xs[current], graph.ys[current]));
+            int first = graph.firstAdjacency(current);
+            int next = graph.incidentEdge(first) != cameBy ? first : first + 1;
+            cameBy = graph.incidentEdge(next);
+            current = graph.neighbour(next);
+        }
+        return cycle;
+    }
+
+    /**
+     * Типы компонент по их номерам в {@link FigureGraph} и признак пересечений во всём рисунке
+     */
+    public static final class Result {
+        private final List<String> componentTypes;
+        private final boolean crossings;
+
+        private Result(List<String> componentTypes, boolean crossings) {
+            this.componentTypes = componentTypes;
+            this.crossings = crossings;
+        }
+
+        public List<String> getComponentTypes() { return componentTypes; }
+
+        public boolean hasCrossings() { return crossings; }
+    }
+}
@@ -0,0 +1,181 @@
+package com.springliviu.ivantask.logic;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * Поиск пересечений рёбер заметающей прямой (Shamos–Hoey) за O(m log m) вместо попарной проверки.
+ * <p>
+ * Касание в общем конце (совпадающие координаты концов обоих рёбер) пересечением не считается —
+ * так же, как в {@link FigureIdentifier}; кратные рёбра тоже. Любое другое общее место,
+ * включая конец одного ребра внутри другого и наложение на одной прямой, — пересечение.
+ * <p>
+ * Вся геометрия точная, в целых числах; координаты должны быть по модулю не больше {@link #MAX_COORD}.
+ */
+final class SegmentSweep {
+
+    static final int MAX_COORD = 1 << 29;
+
+    // Отрезки нормализованы: (x1, y1) лексикографически меньше (x2, y2)
+    private final long[] x1, y1, x2, y2;
+    private long sweepX;
+
+    private SegmentSweep(long[] x1, long[] y1, long[] x2, long[] y2) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.x2 = x2;
+        this.y2 = y2;
+    }
+
+    /**
+     * Есть ли пересечения среди рёбер {@code edgeIds} графа с вершинами (xs, ys) и рёбрами (from, to)
+     */
+    static boolean hasCrossing(int[] xs, int[] ys, int[] from, int[] to, int[] edgeIds) {
+        int m = edgeIds.length;
+        long[] x1 = new long[m], y1 = new long[m], x2 = new long[m], y2 = new long[m];
+        int count = 0;
+        for (int e : edgeIds) {
+            long ax = xs[from[e]], ay = ys[from[e]], bx = xs[to[e]], by = ys[to[e]];
+            // Петли и рёбра между совпадающими точками ничего не рисуют
+            if (ax == bx && ay == by) continue;
+            boolean swap = ax > bx || (ax == bx && ay > by);
+            x1[count] = swap ? bx : ax;
+            y1[count] = swap ? by : ay;
+            x2[count] = swap ? ax : bx;
+            y2[count] = swap ? ay : by;
+            count++;
+        }
+        return new SegmentSweep(x1, y1, x2, y2).run(count);
+    }
+
+    private boolean run(int count) {
+        // Событие = 2 * segment + (0 — вставка, 1 — удаление)
+        Integer[] events = new Integer[2 * count];
+        for (int i = 0; i < 2 * count; i++) events[i] = i;
+        Arrays.sort(events, this::compareEvents);
+
+        TreeSet<Integer> active = new TreeSet<>(this::compareSegments);
+        for (int event : events) {
+            int s = event >> 1;
+            boolean removal = (event & 1) == 1;
+            sweepX = removal ? x2[s] : x1[s];
+
+            if (!removal) {
+                active.add(s);
+                if (crosses(s, active.lower(s)) || crosses(s, active.higher(s))) return true;
+            } else {
+                Integer below = active.lower(s), above = active.higher(s);
+                active.remove(s);
+                if (below != null && crosses(below, above)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * События по x, затем по y; в одной точке удаления идут раньше вставок
+     */
+    private int compareEvents(int a, int b) {
+        int sa = a >> 1, sb = b >> 1;
+        boolean ra = (a & 1) == 1, rb = (b & 1) == 1;
+        int c = Long.compare(ra ? x2[sa] : x1[sa], rb ? x2[sb] : x1[sb]);
+        if (c != 0) return c;
+        c = Long.compare(ra ? y2[sa] : y1[sa], rb ? y2[sb] : y1[sb]);
+        if (c != 0) return c;
+        return Boolean.compare(!ra, !rb);
+    }
+
+    /**
+     * Порядок активных отрезков снизу вверх на текущей прямой x = sweepX.
+     * Если в этой точке они совпадают, беру порядок в середине их общего x-диапазона —
+     * для непересекающихся рёбер он одинаков всё время, пока оба активны.
+     */
+    private int compareSegments(Integer a, Integer b) {
+        int s = a, t = b;
+        if (s == t) return 0;
+        boolean vs = x1[s] == x2[s], vt = x1[t] == x2[t];
+
+        int c;
+        if (vs && vt) {
+            c = Long.compare(y1[s], y1[t]);
+            if (c == 0) c = Long.compare(y2[s], y2[t]);
+        } else if (vs) {
+            c = -compareWithVertical(t, s);
+        } else if (vt) {
+            c = compareWithVertical(s, t);
+        } else {
+            c = compareAt(s, t, 2 * sweepX);
+            if (c == 0) c = compareAt(s, t, Math.max(x1[s], x1[t]) + Math.min(x2[s], x2[t]));
+        }
+        return c != 0 ? c : Integer.compare(s, t);
+    }
+
+    /**
+     * Сравниваю y двух невертикальных отрезков в точке x = doubledX / 2
+     */
+    private int compareAt(int s, int t, long doubledX) {
+        long dxs = x2[s] - x1[s], dxt = x2[t] - x1[t];
+        // 2 * y(x) * dx, точно в long
+        long ys = 2 * y1[s] * dxs + (y2[s] - y1[s]) * (doubledX - 2 * x1[s]);
+        long yt = 2 * y1[t] * dxt + (y2[t] - y1[t]) * (doubledX - 2 * x1[t]);
+        return compareProducts(ys, dxt, yt, dxs);
+    }
+
+    /**
+     * Невертикальный s против вертикального v на прямой x = sweepX.
+     * Касание нижнего конца v — s ниже, верхнего — выше.
+     */
+    private int compareWithVertical(int s, int v) {
+        long dx = x2[s] - x1[s];
+        long ys = y1[s] * dx + (y2[s] - y1[s]) * (sweepX - x1[s]);
+        // Если s проходит сквозь v, это пересечение, и порядок не важен
+        return compareProducts(ys, 1, y1[v], dx) <= 0 ? -1 : 1;
+    }
+
+    /**
+     * Знак a * b - c * d без переполнения (128-битное сравнение)
+     */
+    private static int compareProducts(long a, long b, long c, long d) {
+        long hi1 = Math.multiplyHigh(a, b), hi2 = Math.multiplyHigh(c, d);
+        if (hi1 != hi2) return Long.compare(hi1, hi2);
+        return Long.compareUnsigned(a * b, c * d);
+    }
+
+    /**
+     * Пересекаются ли отрезки где-то кроме общего конца
+     */
+    private boolean crosses(int s, Integer other) {
+        if (other == null) return false;
+        int t = other;
+        // Кратные рёбра рисуются одной линией
+        if (x1[s] == x1[t] && y1[s] == y1[t] && x2[s] == x2[t] && y2[s] == y2[t]) return false;
+
+        int o1 = orientation(x1[s], y1[s], x2[s], y2[s], x1[t], y1[t]);
+        int o2 = orientation(x1[s], y1[s], x2[s], y2[s], x2[t], y2[t]);
+        int o3 = orientation(x1[t], y1[t], x2[t], y2[t], x1[s], y1[s]);
+        int o4 = orientation(x1[t], y1[t], x2[t], y2[t], x2[s], y2[s]);
+        if (o1 * o2 > 0 || o3 * o4 > 0) return false;
+
+        if (o1 == 0 && o2 == 0) {
+            // На одной прямой: пересечение — только если наложение длиннее точки
+            long from = Math.max(key(x1[s], y1[s]), key(x1[t], y1[t]));
+            long to = Math.min(key(x2[s], y2[s]), key(x2[t], y2[t]));
+            return from < to;
+        }
+
+        boolean sharedEnd = (x1[s] == x1[t] && y1[s] == y1[t]) || (x1[s] == x2[t] && y1[s] == y2[t])
+                || (x2[s] == x1[t] && y2[s] == y1[t]) || (x2[s] == x2[t] && y2[s] == y2[t]);
+        return !sharedEnd;
+    }
+
+    /**
+     * Лексикографический ключ точки — для отрезков на одной прямой совпадает с порядком вдоль неё
+     */
+    private static long key(long x, long y) {
+        return (x << 32) + y;
+    }
+
+    private static int orientation(long ax, long ay, long bx, long by, long cx, long cy) {
+        return Long.signum((bx - ax) * (cy - ay) - (by - ay) * (cx - ax));
+    }
+}
@@ -0,0 +1,17 @@
+package com.springliviu.ivantask.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GraphRequest {
+    private List<Point> points = new ArrayList<>();
+    private List<Edge> edges = new ArrayList<>();
+
+    public List<Point> getPoints() { return points; }
+
+    public void setPoints(List<Point> points) { this.points = points; }
+
+    public List<Edge> getEdges() { return edges; }
+
+    public void setEdges(List<Edge> edges) { this.edges = edges; }
+}
@@ -0,0 +1,36 @@
+package com.springliviu.ivantask.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Выгрузка JFR-записи через Actuator: {@code GET /actuator/jfr}.
+ * <p>
+ * Запись — отладочные данные о процессе, поэтому наружу она попадает, только если
+ * {@code jfr} явно перечислен в {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private final JfrRecorder jfrRecorder;
+
+    public JfrEndpoint(JfrRecorder jfrRecorder) {
+        this.jfrRecorder = jfrRecorder;
+    }
+
+    /**
+     * Файл .jfr; null (404), если запись не включена
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource dump() throws IOException {
+        return jfrRecorder.dump()
+                .map(bytes -> (Resource) new ByteArrayResource(bytes))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.springliviu.ivantask.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Непрерывная JFR-запись с ограниченной историей, которую можно выгрузить по запросу.
+ * Включается свойством {@code gridmagic.profiling.jfr.enabled}; выключенная ничего не стоит.
+ * Выгружается через {@link JfrEndpoint}.
+ */
+@Component
+public class JfrRecorder {
+
+    /**
+     * События с окружением процесса: переменные окружения, системные свойства, аргументы JVM
+     * и список процессов могут содержать пароли и токены, в выгрузку они не попадают
+     */
+    static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+
+    private final Recording recording;
+
+    public JfrRecorder(@Value("${gridmagic.profiling.jfr.enabled:false}") boolean enabled,
+                       @Value("${gridmagic.profiling.jfr.settings:default}") String settings,
+                       @Value("${gridmagic.profiling.jfr.max-age-seconds:300}") long maxAgeSeconds)
+            throws IOException, ParseException {
+        if (!enabled) {
+            this.recording = null;
+            return;
+        }
+        this.recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("grid-magic");
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofSeconds(maxAgeSeconds));
+        recording.enable(StageEvent.class).withThreshold(Duration.ZERO);
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.start();
+    }
+
+    /**
+     * Выгружаю накопленную запись в .jfr; пусто, если запись выключена
+     */
+    public Optional<byte[]> dump() throws IOException {
+        if (recording == null) return Optional.empty();
+        Path file = Files.createTempFile("grid-magic-", ".jfr");
+        try {
+            recording.dump(file);
+            return Optional.of(Files.readAllBytes(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) recording.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.springliviu.ivantask.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Открывает контекст замеров для /api/generate, если замеры кому-то нужны.
+ * <p>
+ * Разбивку по этапам собираю только если клиент прислал {@code X-Debug-Timing} и запрос
+ * попал в выборку. Для таких запросов тело буферизуется, чтобы заголовок Server-Timing
+ * успел учесть и сериализацию.
+ */
+@Component
+public class ProfilingFilter extends OncePerRequestFilter {
+
+    private static final String GUARDED_PATH = "/api/generate";
+    private static final String DEBUG_HEADER = "X-Debug-Timing";
+
+    private final boolean enabled;
+    private final boolean breakdownEnabled;
+    private final double sampleRate;
+
+    public ProfilingFilter(@Value("${gridmagic.profiling.enabled:true}") boolean enabled,
+                           @Value("${gridmagic.profiling.breakdown-enabled:false}") boolean breakdownEnabled,
+                           @Value("${gridmagic.profiling.breakdown-sample-rate:1.0}") double sampleRate) {
+        this.enabled = enabled;
+        this.breakdownEnabled = breakdownEnabled;
+        this.sampleRate = sampleRate;
+        StageProfiler.setBreakdownEnabled(enabled && breakdownEnabled);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(GUARDED_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean breakdown = breakdownEnabled && request.getHeader(DEBUG_HEADER) != null
+                && ThreadLocalRandom.current().nextDouble() < sampleRate;
+
+        if (!breakdown) {
+            // Без разбивки контекст нужен только ради JFR-события сериализации
+            if (!StageProfiler.isJfrRecording()) {
+                chain.doFilter(request, response);
+                return;
+            }
+            StageProfiler.open(false);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                StageProfiler.close();
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        StageProfiler.open(true);
+        long[] timings;
+        try {
+            chain.doFilter(request, buffered);
+        } finally {
+            timings = StageProfiler.close();
+        }
+        buffered.setHeader("Server-Timing", StageProfiler.toServerTiming(timings));
+        buffered.copyBodyToResponse();
+    }
+}
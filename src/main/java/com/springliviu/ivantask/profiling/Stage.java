@@ -0,0 +1,23 @@
+package com.springliviu.ivantask.profiling;
+
+/**
+ * Этапы горячего пути /api/generate, которые замеряю отдельно
+ */
+public enum Stage {
+    SAMPLING("sampling"),
+    CENTER_POINTS("centerPoints"),
+    SORT_BY_ANGLE("sortByAngle"),
+    DEDUPLICATE("deduplicate"),
+    REMOVE_INLINE_POINTS("removeInlinePoints"),
+    SELF_INTERSECTIONS("hasSelfIntersections"),
+    CLASSIFICATION("classification"),
+    SERIALIZATION("serialization");
+
+    private final String label;
+
+    Stage(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+}
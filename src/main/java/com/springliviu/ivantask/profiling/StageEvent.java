@@ -0,0 +1,32 @@
+package com.springliviu.ivantask.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-событие одного этапа; закрывается в try-with-resources через {@link StageProfiler#end}
+ */
+@Name("com.springliviu.ivantask.Stage")
+@Label("Grid Magic Stage")
+@Category("Grid Magic")
+@Description("Время одного этапа генерации и классификации фигуры")
+@StackTrace(false)
+public class StageEvent extends Event implements AutoCloseable {
+
+    @Label("Stage")
+    String stage;
+
+    // Не пишутся в JFR: нужны только для разбивки в заголовке ответа
+    transient Stage kind;
+    transient long[] timings;
+    transient long startNanos;
+
+    @Override
+    public void close() {
+        StageProfiler.end(this);
+    }
+}
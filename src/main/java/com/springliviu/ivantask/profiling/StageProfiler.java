@@ -0,0 +1,134 @@
+package com.springliviu.ivantask.profiling;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.util.Locale;
+
+/**
+ * Замер этапов: каждый этап — JFR-событие, а для выбранных запросов ещё и
+ * сумма наносекунд по этапам, которая уходит в заголовок Server-Timing.
+ * <p>
+ * Контекст запроса живёт в ThreadLocal и создаётся только {@link ProfilingFilter};
+ * вне запроса (тесты, поиск) остаётся лишь JFR-событие.
+ * <p>
+ * Пока не идёт ни одна JFR-запись и разбивка выключена, {@link #begin} после чтения двух
+ * volatile-флагов возвращает null: ни объектов, ни обращений к ThreadLocal. Этапы открываются
+ * через try-with-resources, который null просто пропускает.
+ */
+public final class StageProfiler {
+
+    private static final ThreadLocal<Context> CONTEXT = new ThreadLocal<>();
+
+    private static volatile boolean breakdownEnabled;
+    private static volatile boolean jfrRecording;
+
+    static {
+        // Слежу за любыми записями, в том числе запущенными через jcmd JFR.start
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                updateJfrState();
+            }
+
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                updateJfrState();
+            }
+        });
+    }
+
+    private StageProfiler() {}
+
+    private static void updateJfrState() {
+        jfrRecording = FlightRecorder.isInitialized() && FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .anyMatch(r -> r.getState() == RecordingState.RUNNING);
+    }
+
+    static void setBreakdownEnabled(boolean enabled) {
+        breakdownEnabled = enabled;
+    }
+
+    static boolean isJfrRecording() {
+        return jfrRecording;
+    }
+
+    /**
+     * Начинаю этап; null — если его сейчас некому замерять
+     */
+    public static StageEvent begin(Stage stage) {
+        if (!breakdownEnabled && !jfrRecording) return null;
+        Context context = CONTEXT.get();
+        boolean timed = context != null && context.timings != null;
+        if (!timed && !jfrRecording) return null;
+
+        StageEvent event = new StageEvent();
+        event.kind = stage;
+        if (timed) {
+            event.timings = context.timings;
+            event.startNanos = System.nanoTime();
+        }
+        event.begin();
+        return event;
+    }
+
+    public static void end(StageEvent event) {
+        if (event == null) return;
+        if (event.timings != null) {
+            event.timings[event.kind.ordinal()] += System.nanoTime() - event.startNanos;
+        }
+        if (event.shouldCommit()) {
+            event.stage = event.kind.getLabel();
+            event.commit();
+        }
+    }
+
+    /**
+     * Открываю контекст запроса; {@code withBreakdown} — собирать ли разбивку по этапам
+     */
+    static void open(boolean withBreakdown) {
+        Context context = new Context();
+        if (withBreakdown) context.timings = new long[Stage.values().length];
+        CONTEXT.set(context);
+    }
+
+    /**
+     * Закрываю контекст и возвращаю разбивку (или null, если её не собирали)
+     */
+    static long[] close() {
+        Context context = CONTEXT.get();
+        if (context == null) return null;
+        if (context.serialization != null) end(context.serialization);
+        CONTEXT.remove();
+        return context.timings;
+    }
+
+    /**
+     * Контроллер вернул результат — дальше работает Jackson
+     */
+    static void beginSerialization() {
+        if (!breakdownEnabled && !jfrRecording) return;
+        Context context = CONTEXT.get();
+        if (context != null && context.serialization == null) context.serialization = begin(Stage.SERIALIZATION);
+    }
+
+    /**
+     * Разбивка в формате Server-Timing, длительности в миллисекундах
+     */
+    static String toServerTiming(long[] timings) {
+        StringBuilder header = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            if (header.length() > 0) header.append(", ");
+            header.append(stage.getLabel()).append(";dur=")
+                    .append(String.format(Locale.ROOT, "%.3f", timings[stage.ordinal()] / 1_000_000.0));
+        }
+        return header.toString();
+    }
+
+    private static final class Context {
+        long[] timings;
+        StageEvent serialization;
+    }
+}
@@ -0,0 +1,83 @@
+package com.springliviu.ivantask.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Адаптивный лимит одновременных запросов (AIMD).
+ * <p>
+ * Окно — {@code limit} ответов подряд, примерно одно «поколение» запросов в полёте.
+ * Если запрос уложился в целевую задержку и очередь была почти полной — лимит растёт на 1,
+ * но не чаще раза на окно: иначе окно быстрых ответов удваивало бы лимит.
+ * Если задержка превышена — лимит умножается на {@code backoff}, тоже не чаще раза на окно:
+ * после снижения следующие {@code limit} ответов уже были в полёте при старом лимите,
+ * и их медленность новое снижение не оправдывает. Всё, что выше лимита,
+ * отклоняется сразу, не дожидаясь свободного потока.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoff;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong nextBackoffSample = new AtomicLong();
+    private final AtomicLong nextIncreaseSample = new AtomicLong();
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos, double backoff) {
+        if (minLimit < 1 || maxLimit < minLimit || backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("Некорректные параметры лимитера");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.backoff = backoff;
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    /**
+     * Пытаюсь занять слот. При успехе вызывающий обязан вызвать {@link #release}
+     */
+    public boolean tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > limit.get()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Освобождаю слот и подстраиваю лимит по задержке запроса
+     */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        long sample = samples.incrementAndGet();
+        if (latencyNanos > targetLatencyNanos) {
+            if (claimWindow(nextBackoffSample, sample)) {
+                limit.updateAndGet(l -> Math.max(minLimit, (int) (l * backoff)));
+            }
+        } else if (current * 2 >= limit.get() && claimWindow(nextIncreaseSample, sample)) {
+            // Увеличиваю лимит только когда он реально используется
+            limit.updateAndGet(l -> Math.min(maxLimit, l + 1));
+        }
+    }
+
+    /**
+     * Открылось ли новое окно для этого изменения; если да — закрываю его на следующие {@code limit} ответов
+     */
+    private boolean claimWindow(AtomicLong nextSample, long sample) {
+        long allowedFrom = nextSample.get();
+        return sample >= allowedFrom && nextSample.compareAndSet(allowedFrom, sample + limit.get());
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
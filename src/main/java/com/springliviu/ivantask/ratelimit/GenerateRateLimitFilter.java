@@ -0,0 +1,121 @@
+package com.springliviu.ivantask.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Защита /api/generate, /api/search и /api/classify от перегрузки.
+ * <p>
+ * Сначала проверяю лимит клиента (429 + Retry-After), затем для /api/generate — общий адаптивный лимит
+ * одновременных запросов (503). Поиск и классификацию графов через AIMD не пропускаю: их время
+ * зависит от размера задачи и только сбивало бы лимит быстрых запросов. Поиск ограничивает сам
+ * {@code DistributedSearchService}, граф — лимиты размера в {@code GridController}. Оба отказа дешёвые и не занимают поток надолго,
+ * поэтому нормальные клиенты не ждут за чужим всплеском.
+ * <p>
+ * Клиент по умолчанию — адрес из {@code getRemoteAddr()}. За прокси его подменяет Tomcat
+ * по X-Forwarded-For ({@code server.forward-headers-strategy=native}). Если клиента
+ * определяет шлюз, можно вместо этого указать его заголовок в {@code gridmagic.rate-limit.client-header}.
+ */
+@Component
+public class GenerateRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String GENERATE_PATH = "/api/generate";
+    private static final List<String> RATE_LIMITED_PATHS = List.of(GENERATE_PATH, "/api/search", "/api/classify");
+
+    private final boolean enabled;
+    private final String clientHeader;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AimdConcurrencyLimiter concurrencyLimiter;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public GenerateRateLimitFilter(
+            MeterRegistry registry,
+            @Value("${gridmagic.rate-limit.enabled:true}") boolean enabled,
+            @Value("${gridmagic.rate-limit.requests-per-second:20}") double requestsPerSecond,
+            @Value("${gridmagic.rate-limit.burst:40}") int burst,
+            @Value("${gridmagic.rate-limit.max-clients:10000}") int maxClients,
+            @Value("${gridmagic.rate-limit.client-header:}") String clientHeader,
+            @Value("${gridmagic.concurrency.initial-limit:32}") int initialLimit,
+            @Value("${gridmagic.concurrency.min-limit:4}") int minLimit,
+            @Value("${gridmagic.concurrency.max-limit:256}") int maxLimit,
+            @Value("${gridmagic.concurrency.target-latency-ms:50}") long targetLatencyMs,
+            @Value("${gridmagic.concurrency.backoff:0.9}") double backoff) {
+        this.enabled = enabled;
+        this.clientHeader = clientHeader.isBlank() ? null : clientHeader.trim();
+        this.rateLimiter = new TokenBucketRateLimiter(requestsPerSecond, burst, maxClients);
+        this.concurrencyLimiter = new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(targetLatencyMs), backoff);
+
+        this.rateLimited = Counter.builder("gridmagic.ratelimit.rejected")
+                .description("Запросы, отклонённые лимитом клиента (429)")
+                .register(registry);
+        this.shed = Counter.builder("gridmagic.concurrency.rejected")
+                .description("Запросы, сброшенные из-за перегрузки (503)")
+                .register(registry);
+        Gauge.builder("gridmagic.concurrency.limit", concurrencyLimiter, AimdConcurrencyLimiter::getLimit)
+                .register(registry);
+        Gauge.builder("gridmagic.concurrency.inflight", concurrencyLimiter, AimdConcurrencyLimiter::getInFlight)
+                .register(registry);
+        Gauge.builder("gridmagic.ratelimit.clients", rateLimiter, TokenBucketRateLimiter::trackedClients)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) return true;
+        String uri = request.getRequestURI();
+        return RATE_LIMITED_PATHS.stream().noneMatch(uri::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(clientKey(request));
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            response.setHeader("Retry-After", String.valueOf(TokenBucketRateLimiter.retryAfterSeconds(waitNanos)));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Слишком много запросов");
+            return;
+        }
+
+        if (!request.getRequestURI().startsWith(GENERATE_PATH)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.increment();
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Сервер перегружен");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (clientHeader != null) {
+            String value = request.getHeader(clientHeader);
+            if (value != null && !value.isBlank()) return value;
+        }
+        return request.getRemoteAddr();
+    }
+}
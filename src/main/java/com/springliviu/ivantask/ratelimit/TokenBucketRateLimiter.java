@@ -0,0 +1,87 @@
+package com.springliviu.ivantask.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket на каждого клиента без блокировок.
+ * <p>
+ * Состояние корзины — одно число в {@link AtomicLong}: теоретическое время прибытия
+ * следующего запроса (алгоритм GCRA). Это эквивалент token bucket со скоростью
+ * {@code ratePerSecond} и ёмкостью {@code burst}, но обновляется одним CAS.
+ * Карта клиентов — {@link ConcurrentHashMap}, которая сама разбита на сегменты.
+ * <p>
+ * Карта ограничена {@code maxClients}. Когда она полна, простаивающих клиентов убирает
+ * один поток и не чаще раза в {@code 1 / ratePerSecond} — так при наплыве новых адресов
+ * проход по карте не повторяется на каждом запросе. Если места всё равно нет,
+ * новые клиенты делят одну общую корзину, пока кто-нибудь не освободится.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxClients;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile long nextEvictionNanos = System.nanoTime();
+
+    public TokenBucketRateLimiter(double ratePerSecond, int burst, int maxClients) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Скорость и ёмкость корзины должны быть положительными");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Беру один токен. Возвращаю 0, если запрос разрешён, иначе — сколько наносекунд ждать
+     */
+    public long tryAcquire(String client) {
+        return tryAcquire(client, System.nanoTime());
+    }
+
+    long tryAcquire(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) evictIdle(now);
+            // Одновременные вставки могут превысить лимит разве что на число потоков
+            bucket = buckets.size() < maxClients ? buckets.computeIfAbsent(client, k -> new AtomicLong(now)) : overflow;
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) return wait;
+            if (bucket.compareAndSet(tat, next)) return 0;
+        }
+    }
+
+    /**
+     * Удаляю клиентов, чья корзина уже полностью восстановилась — они ничем не отличаются от новых
+     */
+    private void evictIdle(long now) {
+        if (now - nextEvictionNanos < 0 || !evicting.compareAndSet(false, true)) return;
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+            nextEvictionNanos = now + intervalNanos;
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Значение Retry-After: ожидание, округлённое вверх до целых секунд, но не меньше одной
+     */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,175 @@
+package com.springliviu.ivantask.render;
+
+import com.springliviu.ivantask.model.ColoredPoint;
+import com.springliviu.ivantask.model.Edge;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Серверная отрисовка фигуры в SVG и PNG — та же картинка, что рисует index.html на canvas.
+ * <p>
+ * Сетка с осями не зависит от фигуры, поэтому рендерю её один раз при старте
+ * и дальше только накладываю рёбра и точки. Готовые байты кладу в {@link RenderCache}.
+ */
+@Component
+public class FigureRenderer {
+
+    public enum Format { SVG, PNG }
+
+    private static final int CANVAS = 600;
+    private static final int CELLS = 10;
+    private static final int STEP = CANVAS / CELLS;
+    private static final int ORIGIN = CANVAS / 2;
+    private static final int POINT_RADIUS = 5;
+
+    private static final Map<String, Color> COLORS = Map.of(
+            "red", Color.RED, "green", new Color(0, 128, 0), "blue", Color.BLUE,
+            "orange", new Color(255, 165, 0), "magenta", Color.MAGENTA, "black", Color.BLACK, "cyan", Color.CYAN);
+
+    private final RenderCache cache;
+    private final BufferedImage pngBackground;
+    private final String svgBackground;
+
+    public FigureRenderer(@Value("${gridmagic.render.cache-size:1024}") int cacheSize) {
+        this.cache = new RenderCache(cacheSize);
+        this.pngBackground = renderPngBackground();
+        this.svgBackground = renderSvgBackground();
+    }
+
+    public byte[] render(List<ColoredPoint> points, List<Edge> edges, Format format) {
+        return cache.get(cacheKey(points, edges, format), () -> switch (format) {
+            case SVG -> renderSvg(points, edges);
+            case PNG -> renderPng(points, edges);
+        });
+    }
+
+    /**
+     * Каноническое описание фигуры: формат, точки с цветами по порядку и рёбра
+     */
+    private static String cacheKey(List<ColoredPoint> points, List<Edge> edges, Format format) {
+        StringBuilder key = new StringBuilder(format.name()).append('|');
+        for (ColoredPoint p : points) key.append(p.getX()).append(',').append(p.getY()).append(',').append(p.getColor()).append(';');
+        key.append('|');
+        for (Edge e : edges) key.append(e.getFrom()).append('-').append(e.getTo()).append(';');
+        return key.toString();
+    }
+
+    private static int toCanvasX(int x) { return ORIGIN + x * STEP; }
+
+    private static int toCanvasY(int y) { return ORIGIN - y * STEP; }
+
+    private static String label(ColoredPoint p) {
+        return "(" + p.getX() + ", " + p.getY() + ")";
+    }
+
+    // ---------- PNG ----------
+
+    private static BufferedImage renderPngBackground() {
+        BufferedImage image = new BufferedImage(CANVAS, CANVAS, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(0xf4f4f4));
+        g.fillRect(0, 0, CANVAS, CANVAS);
+
+        g.setColor(new Color(0xcccccc));
+        for (int i = 0; i <= CELLS; i++) {
+            int pos = i * STEP;
+            g.drawLine(pos, 0, pos, CANVAS);
+            g.drawLine(0, pos, CANVAS, pos);
+        }
+
+        g.setColor(Color.BLACK);
+        g.setStroke(new BasicStroke(2));
+        g.drawLine(ORIGIN, 0, ORIGIN, CANVAS);
+        g.drawLine(0, ORIGIN, CANVAS, ORIGIN);
+        g.dispose();
+        return image;
+    }
+
+    private byte[] renderPng(List<ColoredPoint> points, List<Edge> edges) {
+        BufferedImage image = new BufferedImage(CANVAS, CANVAS, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.drawImage(pngBackground, 0, 0, null);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        g.setColor(Color.BLUE);
+        g.setStroke(new BasicStroke(2));
+        for (Edge e : edges) {
+            ColoredPoint from = points.get(e.getFrom());
+            ColoredPoint to = points.get(e.getTo());
+            g.drawLine(toCanvasX(from.getX()), toCanvasY(from.getY()), toCanvasX(to.getX()), toCanvasY(to.getY()));
+        }
+
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        for (ColoredPoint p : points) {
+            int cx = toCanvasX(p.getX()), cy = toCanvasY(p.getY());
+            g.setColor(COLORS.getOrDefault(p.getColor(), Color.BLACK));
+            g.fillOval(cx - POINT_RADIUS, cy - POINT_RADIUS, 2 * POINT_RADIUS, 2 * POINT_RADIUS);
+            g.setColor(Color.BLACK);
+            g.drawString(label(p), cx + 6, cy - 6);
+        }
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // ---------- SVG ----------
+
+    private static String renderSvgBackground() {
+        StringBuilder svg = new StringBuilder();
+        svg.append("<rect width=\"").append(CANVAS).append("\" height=\"").append(CANVAS)
+                .append("\" fill=\"#f4f4f4\" stroke=\"#333\"/>\n<g stroke=\"#ccc\" stroke-width=\"1\">\n");
+        for (int i = 0; i <= CELLS; i++) {
+            int pos = i * STEP;
+            svg.append("<line x1=\"").append(pos).append("\" y1=\"0\" x2=\"").append(pos).append("\" y2=\"").append(CANVAS).append("\"/>\n");
+            svg.append("<line x1=\"0\" y1=\"").append(pos).append("\" x2=\"").append(CANVAS).append("\" y2=\"").append(pos).append("\"/>\n");
+        }
+        svg.append("</g>\n<g stroke=\"#000\" stroke-width=\"2\">\n")
+                .append("<line x1=\"").append(ORIGIN).append("\" y1=\"0\" x2=\"").append(ORIGIN).append("\" y2=\"").append(CANVAS).append("\"/>\n")
+                .append("<line x1=\"0\" y1=\"").append(ORIGIN).append("\" x2=\"").append(CANVAS).append("\" y2=\"").append(ORIGIN).append("\"/>\n")
+                .append("</g>\n");
+        return svg.toString();
+    }
+
+    private byte[] renderSvg(List<ColoredPoint> points, List<Edge> edges) {
+        StringBuilder svg = new StringBuilder(svgBackground.length() + 256 * (points.size() + edges.size()));
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(CANVAS).append("\" height=\"").append(CANVAS)
+                .append("\" viewBox=\"0 0 ").append(CANVAS).append(' ').append(CANVAS).append("\">\n")
+                .append(svgBackground);
+
+        svg.append("<g stroke=\"blue\" stroke-width=\"2\">\n");
+        for (Edge e : edges) {
+            ColoredPoint from = points.get(e.getFrom());
+            ColoredPoint to = points.get(e.getTo());
+            svg.append("<line x1=\"").append(toCanvasX(from.getX())).append("\" y1=\"").append(toCanvasY(from.getY()))
+                    .append("\" x2=\"").append(toCanvasX(to.getX())).append("\" y2=\"").append(toCanvasY(to.getY())).append("\"/>\n");
+        }
+        svg.append("</g>\n<g font-family=\"Arial\" font-size=\"12\">\n");
+        for (ColoredPoint p : points) {
+            int cx = toCanvasX(p.getX()), cy = toCanvasY(p.getY());
+            // Цвет берём только из известного набора, чтобы не вставлять в SVG произвольную строку
+            String color = COLORS.containsKey(p.getColor()) ? p.getColor() : "black";
+            svg.append("<circle cx=\"").append(cx).append("\" cy=\"").append(cy).append("\" r=\"").append(POINT_RADIUS)
+                    .append("\" fill=\"").append(color).append("\"/>\n")
+                    .append("<text x=\"").append(cx + 6).append("\" y=\"").append(cy - 6).append("\">")
+                    .append(label(p)).append("</text>\n");
+        }
+        svg.append("</g>\n</svg>\n");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.springliviu.ivantask.render;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * LRU-кэш готовых картинок: ключ — каноническое описание фигуры, значение — байты ответа
+ */
+public class RenderCache {
+
+    private final Map<String, byte[]> entries;
+
+    public RenderCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Отдаю байты из кэша или рендерю и запоминаю. Сам рендер идёт вне блокировки
+     */
+    public byte[] get(String key, Supplier<byte[]> renderer) {
+        synchronized (entries) {
+            byte[] cached = entries.get(key);
+            if (cached != null) return cached;
+        }
+        byte[] rendered = renderer.get();
+        synchronized (entries) {
+            entries.putIfAbsent(key, rendered);
+        }
+        return rendered;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.springliviu.ivantask.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Поиск фигуры, разделённый между несколькими экземплярами приложения.
+ * <p>
+ * Координатор делит диапазон seed'ов на равные части: первая достаётся ему самому,
+ * остальные уходят пирам из {@code gridmagic.search.peers} по HTTP. Первый найденный
+ * результат возвращается клиенту, а всем остальным участникам отправляется отмена.
+ * Пир выполняет свою часть через тот же {@link #searchLocal}.
+ * <p>
+ * «Не найдено» отвечаю только тогда, когда весь диапазон действительно перебран. Если пир
+ * отказал (429, 503), не ответил или кто-то не уложился в срок, поиск заканчивается
+ * {@link SearchIncompleteException}: пустой результат означал бы, что непроверенной части нет.
+ * <p>
+ * Поиск дорогой, поэтому он ограничен со всех сторон: число seed'ов — {@code max-seeds},
+ * время — {@code timeout-ms} (и у координатора, и у каждой части), одновременные поиски —
+ * {@code max-concurrent}. Перебор идёт в отдельном {@link ForkJoinPool} на {@code parallelism}
+ * потоков, а не в общем пуле, где работает, например, {@code GraphClassifier}.
+ */
+@Service
+public class DistributedSearchService {
+
+    private static final TypeReference<Map<String, Object>> FIGURE = new TypeReference<>() {};
+    private static final int MAX_REMEMBERED_CANCELS = 10_000;
+
+    private final GridService gridService;
+    private final ObjectMapper objectMapper;
+    private final List<String> peers;
+    private final long maxSeeds;
+    private final long timeoutMs;
+    private final Semaphore permits;
+    private final ForkJoinPool searchPool;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+    // Отмена может прийти раньше самого запроса части — помню её, пока запрос ещё может прийти
+    private final Map<String, Long> cancelled = new ConcurrentHashMap<>();
+    private volatile long nextCancelPruneNanos = System.nanoTime();
+
+    public DistributedSearchService(GridService gridService, ObjectMapper objectMapper,
+                                    @Value("${gridmagic.search.peers:}") List<String> peers,
+                                    @Value("${gridmagic.search.max-seeds:10000000}") long maxSeeds,
+                                    @Value("${gridmagic.search.timeout-ms:10000}") long timeoutMs,
+                                    @Value("${gridmagic.search.max-concurrent:4}") int maxConcurrent,
+                                    @Value("${gridmagic.search.parallelism:0}") int parallelism) {
+        this.gridService = gridService;
+        this.objectMapper = objectMapper;
+        this.peers = peers.stream().map(String::trim).filter(p -> !p.isEmpty()).toList();
+        this.maxSeeds = maxSeeds;
+        this.timeoutMs = timeoutMs;
+        this.permits = new Semaphore(maxConcurrent);
+        // По умолчанию половина ядер: остальным запросам тоже нужен процессор
+        this.searchPool = new ForkJoinPool(parallelism > 0 ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        searchPool.shutdownNow();
+    }
+
+    /**
+     * Ищу фигуру среди {@code seeds} seed'ов, распределяя работу между собой и пирами
+     */
+    public Optional<Map<String, Object>> search(String type, long seeds) {
+        if (seeds <= 0 || seeds > maxSeeds) {
+            throw new IllegalArgumentException("seeds должно быть от 1 до " + maxSeeds);
+        }
+        // Случайное начало, чтобы повторные поиски давали разные фигуры.
+        // Держу seed'ы меньше 2^53, чтобы JavaScript читал их из JSON без потери точности
+        long base = ThreadLocalRandom.current().nextLong(1L << 52);
+        int nodes = peers.size() + 1;
+        long chunk = (seeds + nodes - 1) / nodes;
+        String searchId = UUID.randomUUID().toString();
+
+        CompletableFuture<Optional<Map<String, Object>>> firstMatch = new CompletableFuture<>();
+        // Общий срок: к нему части сами завершаются, это страховка от зависшего пира
+        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> firstMatch.completeExceptionally(
+                new SearchIncompleteException("Поиск не уложился в " + timeoutMs + " мс")));
+        AtomicInteger pending = new AtomicInteger(nodes);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Optional<Map<String, Object>>>> parts = new ArrayList<>();
+
+        parts.add(searchLocalAsync(searchId, type, base, base + chunk));
+        for (int i = 0; i < peers.size(); i++) {
+            long from = base + (i + 1) * chunk;
+            parts.add(searchPeer(peers.get(i), searchId, type, from, from + chunk));
+        }
+
+        for (CompletableFuture<Optional<Map<String, Object>>> part : parts) {
+            part.whenComplete((result, error) -> {
+                if (result != null && result.isPresent()) {
+                    firstMatch.complete(result);
+                    return;
+                }
+                if (error != null) failure.compareAndSet(null, unwrap(error));
+                if (pending.decrementAndGet() == 0) {
+                    Throwable cause = failure.get();
+                    if (cause == null) {
+                        firstMatch.complete(Optional.empty());
+                    } else {
+                        firstMatch.completeExceptionally(cause instanceof SearchIncompleteException ? cause
+                                : new SearchIncompleteException("Часть диапазона не проверена: " + cause.getMessage()));
+                    }
+                }
+            });
+        }
+
+        try {
+            return join(firstMatch);
+        } finally {
+            cancel(searchId);
+            for (String peer : peers) cancelPeer(peer, searchId);
+        }
+    }
+
+    /**
+     * Перебираю свою часть диапазона не дольше {@code timeout-ms}; отмена — через {@link #cancel}.
+     * Не успел к сроку — {@link SearchIncompleteException}, и координатор узнаёт о пропуске по 503
+     */
+    public Optional<Map<String, Object>> searchLocal(String searchId, String type, long fromSeed, long toSeed) {
+        // Вторая проверка ловит переполнение разности
+        if (toSeed < fromSeed || toSeed - fromSeed < 0 || toSeed - fromSeed > maxSeeds) {
+            throw new IllegalArgumentException("Диапазон seed'ов должен быть не длиннее " + maxSeeds);
+        }
+        return join(searchLocalAsync(searchId, type, fromSeed, toSeed));
+    }
+
+    private CompletableFuture<Optional<Map<String, Object>>> searchLocalAsync(String searchId, String type,
+                                                                              long fromSeed, long toSeed) {
+        if (!permits.tryAcquire()) {
+            throw new SearchRejectedException("Слишком много одновременных поисков");
+        }
+        AtomicBoolean stop = running.computeIfAbsent(searchId, id -> new AtomicBoolean());
+        // Регистрирую флаг до проверки отмены, а cancel() наоборот: так одна из сторон видит другую
+        if (cancelled.containsKey(searchId)) stop.set(true);
+        // Срок отличаю от отмены: отменённая часть уже никому не нужна, а недоперебранная — неполный ответ
+        AtomicBoolean expired = new AtomicBoolean();
+        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+            expired.set(true);
+            stop.set(true);
+        });
+
+        try {
+            // Параллельный стрим внутри searchFigure работает в пуле той задачи, которая его запустила
+            return CompletableFuture.supplyAsync(() -> gridService.searchFigure(type, fromSeed, toSeed, stop), searchPool)
+                    .thenApply(result -> {
+                        if (result.isEmpty() && expired.get()) {
+                            throw new SearchIncompleteException("Диапазон не перебран за " + timeoutMs + " мс");
+                        }
+                        return result;
+                    })
+                    .whenComplete((result, error) -> finish(searchId));
+        } catch (RuntimeException e) {
+            finish(searchId);
+            throw e;
+        }
+    }
+
+    private void finish(String searchId) {
+        running.remove(searchId);
+        permits.release();
+    }
+
+    public void cancel(String searchId) {
+        long now = System.nanoTime();
+        // Чищу не чаще раза в секунду, чтобы поток отмен не превращался в проходы по карте
+        if (cancelled.size() >= MAX_REMEMBERED_CANCELS && now - nextCancelPruneNanos >= 0) {
+            nextCancelPruneNanos = now + TimeUnit.SECONDS.toNanos(1);
+            cancelled.values().removeIf(expires -> expires - now < 0);
+        }
+        // Если и после чистки места нет, запрос части всё равно остановит срок timeout-ms
+        if (cancelled.size() < MAX_REMEMBERED_CANCELS) {
+            cancelled.put(searchId, now + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        }
+        AtomicBoolean stop = running.get(searchId);
+        if (stop != null) stop.set(true);
+    }
+
+    int activeSearches() {
+        return running.size();
+    }
+
+    private CompletableFuture<Optional<Map<String, Object>>> searchPeer(String peer, String searchId, String type,
+                                                                         long fromSeed, long toSeed) {
+        URI uri = URI.create(peer + "/api/search/local?id=" + searchId
+                + "&type=" + URLEncoder.encode(type, StandardCharsets.UTF_8)
+                + "&from=" + fromSeed + "&to=" + toSeed);
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofMillis(timeoutMs)).GET().build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> peerResult(peer, response, error));
+    }
+
+    /**
+     * 200 — находка, 204 — пир перебрал свою часть целиком; всё остальное значит, что часть не проверена
+     */
+    private Optional<Map<String, Object>> peerResult(String peer, HttpResponse<byte[]> response, Throwable error) {
+        if (error != null) {
+            throw new SearchIncompleteException("Пир " + peer + " не ответил: " + unwrap(error));
+        }
+        return switch (response.statusCode()) {
+            case 200 -> {
+                try {
+                    yield Optional.of(objectMapper.readValue(response.body(), FIGURE));
+                } catch (IOException e) {
+                    throw new SearchIncompleteException("Пир " + peer + " вернул некорректный ответ: " + e.getMessage());
+                }
+            }
+            case 204 -> Optional.empty();
+            default -> throw new SearchIncompleteException("Пир " + peer + " ответил " + response.statusCode());
+        };
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * join без обёртки: наружу уходит исходное исключение, чтобы контроллер выбрал по нему статус
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void cancelPeer(String peer, String searchId) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(peer + "/api/search/local/" + searchId))
+                .timeout(Duration.ofMillis(timeoutMs)).DELETE().build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Узел уже выполняет {@code max-concurrent} поисков
+     */
+    public static class SearchRejectedException extends RuntimeException {
+        public SearchRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Ничего не нашлось, но часть диапазона осталась непроверенной
+     */
+    public static class SearchIncompleteException extends RuntimeException {
+        public SearchIncompleteException(String message) {
+            super(message);
+        }
+    }
+}
@@ -4,9 +4,15 @@ import com.springliviu.ivantask.model.Point;
 import com.springliviu.ivantask.model.ColoredPoint;
 import com.springliviu.ivantask.model.Edge;
 import com.springliviu.ivantask.logic.FigureIdentifier;
+import com.springliviu.ivantask.logic.FigureMetrics;
+import com.springliviu.ivantask.profiling.Stage;
+import com.springliviu.ivantask.profiling.StageEvent;
+import com.springliviu.ivantask.profiling.StageProfiler;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
 @Service
 public class GridService {
@@ -16,26 +22,40 @@ public class GridService {
     private final Random random = new Random();
 
     public Map<String, Object> generateFigure() {
+        return generateFigure(random);
+    }
+
+    /**
+     * Генерация из заданного источника случайности — при одном и том же seed фигура та же
+     */
+    public Map<String, Object> generateFigure(Random random) {
         int numPoints = random.nextInt(6) + 1; // от 1 до 6 включительно
         Set<String> used = new HashSet<>();
         List<Point> originalPoints = new ArrayList<>();
 
         // Генерация уникальных точек
-        while (originalPoints.size() < numPoints) {
-            int x = random.nextInt(MAX_COORD - MIN_COORD + 1) + MIN_COORD;
-            int y = random.nextInt(MAX_COORD - MIN_COORD + 1) + MIN_COORD;
-            if (used.add(x + "," + y)) {
-                originalPoints.add(new Point(x, y));
+        try (StageEvent stage = StageProfiler.begin(Stage.SAMPLING)) {
+            while (originalPoints.size() < numPoints) {
+                int x = random.nextInt(MAX_COORD - MIN_COORD + 1) + MIN_COORD;
+                int y = random.nextInt(MAX_COORD - MIN_COORD + 1) + MIN_COORD;
+                if (used.add(x + "," + y)) {
+                    originalPoints.add(new Point(x, y));
+                }
             }
         }
 
         // Центрируем точки ближе к центру
-        centerPoints(originalPoints);
+        try (StageEvent stage = StageProfiler.begin(Stage.CENTER_POINTS)) {
+            centerPoints(originalPoints);
+        }
 
         // Если ≥ 3, сортируем по углу для красивой отрисовки
-        List<Integer> drawOrder = originalPoints.size() >= 3
-                ? sortByAngle(originalPoints)
-                : defaultOrder(originalPoints.size());
+        List<Integer> drawOrder;
+        try (StageEvent stage = StageProfiler.begin(Stage.SORT_BY_ANGLE)) {
+            drawOrder = originalPoints.size() >= 3
+                    ? sortByAngle(originalPoints)
+                    : defaultOrder(originalPoints.size());
+        }
 
         // Готовим точки для отрисовки
         String[] colors = {"red", "green", "blue", "orange", "magenta", "black", "cyan"};
@@ -67,6 +87,32 @@ public class GridService {
         return result;
     }
 
+    /**
+     * Перебираю seed'ы из [fromSeed, toSeed) на всех ядрах, пока не найду фигуру нужного типа.
+     * Тип сравниваю по префиксу, так что "треугольник" найдёт любой треугольник.
+     * Флаг stop прерывает перебор извне; при находке взвожу его сам.
+     */
+    public Optional<Map<String, Object>> searchFigure(String type, long fromSeed, long toSeed, AtomicBoolean stop) {
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+        return IntStream.range(0, workers).parallel()
+                .mapToObj(w -> scanStripe(type, fromSeed + w, toSeed, workers, stop))
+                .filter(Objects::nonNull)
+                .findAny();
+    }
+
+    private Map<String, Object> scanStripe(String type, long fromSeed, long toSeed, int stride, AtomicBoolean stop) {
+        for (long seed = fromSeed; seed < toSeed && !stop.get(); seed += stride) {
+            Map<String, Object> figure = generateFigure(new Random(seed));
+            if (((String) figure.get("type")).startsWith(type)) {
+                // Останавливаю остальные полосы
+                stop.set(true);
+                figure.put("seed", seed);
+                return figure;
+            }
+        }
+        return null;
+    }
+
     private void centerPoints(List<Point> points) {
         for (Point p : points) {
             if (p.getX() >= 5) p.setX(p.getX() - 2);
@@ -75,12 +121,23 @@ public class GridService {
     }
 
     private List<Integer> sortByAngle(List<Point> points) {
-        double cx = points.stream().mapToInt(Point::getX).average().orElse(0);
-        double cy = points.stream().mapToInt(Point::getY).average().orElse(0);
+        int n = points.size();
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = points.get(i).getX();
+            ys[i] = points.get(i).getY();
+        }
+        double cx = FigureMetrics.mean(xs, 0, n);
+        double cy = FigureMetrics.mean(ys, 0, n);
+
+        // Угол считаю один раз на точку, а не в каждом сравнении
+        double[] angles = new double[n];
+        for (int i = 0; i < n; i++) angles[i] = Math.atan2(ys[i] - cy, xs[i] - cx);
+
         List<Integer> indices = new ArrayList<>();
-        for (int i = 0; i < points.size(); i++) indices.add(i);
-        indices.sort(Comparator.comparingDouble(i ->
-                Math.atan2(points.get(i).getY() - cy, points.get(i).getX() - cx)));
+        for (int i = 0; i < n; i++) indices.add(i);
+        indices.sort(Comparator.comparingDouble(i -> angles[i]));
         return indices;
     }
 
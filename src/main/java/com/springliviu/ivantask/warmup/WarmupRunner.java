@@ -0,0 +1,123 @@
+package com.springliviu.ivantask.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springliviu.ivantask.service.GridService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Прогрев JIT перед приёмом трафика.
+ * <p>
+ * Гоняю генерацию, классификацию и сериализацию ответа пачками не короче {@code batch-ms}
+ * и считаю время одной итерации в каждой пачке. Соседние пачки сравнивать бесполезно — их
+ * разброс от GC и планировщика больше 10%. Поэтому сравниваю медианы: прогрев закончен, когда
+ * медиана последних {@code window} пачек улучшилась меньше чем на {@code tolerance} по сравнению
+ * с медианой предыдущих {@code window} (или кончились итерации/время). Boot переводит
+ * readiness в ACCEPTING_TRAFFIC только после всех ApplicationRunner, так что до конца
+ * прогрева /actuator/health/readiness отвечает, что приложение не готово.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final GridService gridService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxIterations;
+    private final long batchNanos;
+    private final int window;
+    private final double tolerance;
+    private final long maxDurationNanos;
+
+    private final AtomicLong durationMs = new AtomicLong();
+    private final AtomicLong iterations = new AtomicLong();
+
+    public WarmupRunner(GridService gridService, ObjectMapper objectMapper, MeterRegistry registry,
+                        @Value("${gridmagic.warmup.enabled:true}") boolean enabled,
+                        @Value("${gridmagic.warmup.max-iterations:200000}") int maxIterations,
+                        @Value("${gridmagic.warmup.batch-ms:50}") long batchMs,
+                        @Value("${gridmagic.warmup.window:5}") int window,
+                        @Value("${gridmagic.warmup.tolerance:0.1}") double tolerance,
+                        @Value("${gridmagic.warmup.max-duration-ms:30000}") long maxDurationMs) {
+        this.gridService = gridService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxIterations = maxIterations;
+        this.batchNanos = TimeUnit.MILLISECONDS.toNanos(batchMs);
+        this.window = Math.max(1, window);
+        this.tolerance = tolerance;
+        this.maxDurationNanos = TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+
+        TimeGauge.builder("gridmagic.warmup.duration", durationMs, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Сколько длился прогрев при старте")
+                .register(registry);
+        Gauge.builder("gridmagic.warmup.iterations", iterations, AtomicLong::get)
+                .description("Сколько итераций понадобилось прогреву")
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws JsonProcessingException {
+        if (!enabled) return;
+
+        long start = System.nanoTime();
+        // Наносекунд на итерацию в каждой пачке; 2 * window пачек хватает для сравнения медиан
+        double[] costs = new double[2 * window];
+        int batches = 0;
+        int done = 0;
+        while (done < maxIterations && System.nanoTime() - start < maxDurationNanos) {
+            long batchStart = System.nanoTime();
+            int batchDone = 0;
+            long elapsed;
+            do {
+                // Фиксированные seed'ы — каждый запуск прогревается на одинаковом наборе фигур
+                objectMapper.writeValueAsBytes(gridService.generateFigure(new Random(done)));
+                done++;
+                batchDone++;
+                elapsed = System.nanoTime() - batchStart;
+            } while (elapsed < batchNanos && done < maxIterations);
+
+            costs[batches++ % costs.length] = (double) elapsed / batchDone;
+            if (batches >= costs.length && isStable(costs, batches, window, tolerance)) break;
+        }
+
+        durationMs.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        iterations.set(done);
+        log.info("Прогрев завершён: {} итераций за {} мс, {} пачек",
+                done, durationMs.get(), batches);
+    }
+
+    /**
+     * Медиана последних {@code window} пачек улучшилась меньше чем на {@code tolerance}
+     * относительно медианы {@code window} пачек перед ними. {@code costs} — кольцевой буфер
+     * на {@code 2 * window} значений, {@code batches} — сколько пачек в него уже записано.
+     */
+    static boolean isStable(double[] costs, int batches, int window, double tolerance) {
+        double[] recent = new double[window], earlier = new double[window];
+        for (int k = 0; k < window; k++) {
+            recent[k] = costs[(batches - 1 - k) % costs.length];
+            earlier[k] = costs[(batches - 1 - window - k) % costs.length];
+        }
+        return median(recent) >= (1 - tolerance) * median(earlier);
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int n = values.length;
+        return n % 2 == 1 ? values[n / 2] : (values[n / 2 - 1] + values[n / 2]) / 2;
+    }
+}
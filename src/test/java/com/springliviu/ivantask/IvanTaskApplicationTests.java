@@ -3,7 +3,8 @@ package com.springliviu.ivantask;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Прогрев при старте тестам не нужен, он лишь удлиняет каждый запуск контекста
+@SpringBootTest(properties = "gridmagic.warmup.enabled=false")
 class IvanTaskApplicationTests {
 
     @Test
@@ -0,0 +1,76 @@
+package com.springliviu.ivantask.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springliviu.ivantask.model.Edge;
+import com.springliviu.ivantask.model.GraphRequest;
+import com.springliviu.ivantask.model.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * /api/classify на координатах от 2^16: произведения разностей уже не помещаются в int,
+ * а квадраты длин — в точность double
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "gridmagic.warmup.enabled=false")
+class GridControllerTest {
+
+    private static final int BIG = 1 << 29;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void classifiesLargeRightTriangle() throws Exception {
+        // 65536 * 65536 = 2^32: в int векторное произведение обнулялось, и треугольник становился фрагментом
+        JsonNode result = classifyCycle(new Point(0, 0), new Point(65536, 0), new Point(0, 65536));
+        assertEquals("треугольник: прямоугольный", result.at("/components/0/type").asText());
+        assertFalse(result.get("crossings").asBoolean());
+    }
+
+    @Test
+    void keepsVerticesOfLargeSquare() throws Exception {
+        // По той же причине вершины квадрата принимались за промежуточные точки и удалялись
+        JsonNode result = classifyCycle(new Point(0, 0), new Point(65536, 0), new Point(65536, 65536), new Point(0, 65536));
+        assertEquals("четырёхугольник: четырёхугольник", result.at("/components/0/type").asText());
+    }
+
+    @Test
+    void comparesSidesOfLargeTrianglesExactly() throws Exception {
+        assertEquals("треугольник: равнобедренный",
+                classifyCycle(new Point(0, 0), new Point(BIG, 0), new Point(BIG / 2, BIG)).at("/components/0/type").asText());
+        // Квадраты сторон 2^58 и 2^58 + 1: после sqrt разница меньше EPSILON, но стороны разные
+        assertEquals("треугольник: разносторонний",
+                classifyCycle(new Point(0, 0), new Point(BIG, 0), new Point(1, BIG)).at("/components/0/type").asText());
+    }
+
+    private JsonNode classifyCycle(Point... points) throws Exception {
+        GraphRequest request = new GraphRequest();
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < points.length; i++) edges.add(new Edge(i, (i + 1) % points.length));
+        request.setPoints(List.of(points));
+        request.setEdges(edges);
+
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/classify"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(request))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,278 @@
+package com.springliviu.ivantask.logic;
+
+import com.springliviu.ivantask.model.Edge;
+import com.springliviu.ivantask.model.Point;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Дифференциальный тест: на случайных наборах точек и рёбер сравниваю
+ * {@link FigureIdentifier#identifyFigure} с альтернативными движками.
+ * <p>
+ * Случаи генерируются параллельно и детерминированно по seed, найденное расхождение
+ * сжимается до минимального контрпримера. Количество случаев и seed задаются через
+ * {@code -Dfigures.differential.cases=...} и {@code -Dfigures.differential.seed=...}.
+ */
+class FigureIdentifierDifferentialTest {
+
+    private static final int CASES = Integer.getInteger("figures.differential.cases", 1_000_000);
+    private static final long SEED = Long.getLong("figures.differential.seed", 20261018L);
+
+    /**
+     * Сюда добавляются новые реализации (primitive, sweep-line и т.д.)
+     */
+    private static final Map<String, BiFunction<List<Point>, List<Edge>, String>> ENGINES = new LinkedHashMap<>();
+
+    static {
+        ENGINES.put("exact-integer", ReferenceFigureClassifier::identifyFigure);
+        ENGINES.put("sweep-line", FigureIdentifierDifferentialTest::sweepLine);
+    }
+
+    @Test
+    @Timeout(60)
+    void enginesAgreeWithFigureIdentifier() {
+        for (Map.Entry<String, BiFunction<List<Point>, List<Edge>, String>> engine : ENGINES.entrySet()) {
+            Optional<Integer> failing = IntStream.range(0, CASES).parallel()
+                    .filter(i -> {
+                        Case c = generate(new SplittableRandom(SEED * 0x9E3779B97F4A7C15L + i));
+                        return !agree(c, engine.getValue());
+                    })
+                    .boxed()
+                    .findAny();
+
+            if (failing.isPresent()) {
+                int index = failing.get();
+                Case minimal = shrink(generate(new SplittableRandom(SEED * 0x9E3779B97F4A7C15L + index)), engine.getValue());
+                fail("Движок " + engine.getKey() + " расходится с FigureIdentifier (seed=" + SEED + ", case=" + index + ")\n"
+                        + "  точки: " + minimal.points + "\n"
+                        + "  рёбра: " + edgesToString(minimal.edges) + "\n"
+                        + "  FigureIdentifier: " + outcome(minimal, FigureIdentifier::identifyFigure) + "\n"
+                        + "  " + engine.getKey() + ": " + outcome(minimal, engine.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Путь /api/classify: цикл, обходящий точки в порядке списка (как рёбра из GridService),
+     * разбирает {@link GraphClassifier}, остальное — тот же конвейер, но пересечения ищет {@link SegmentSweep}.
+     * Цикл в другом порядке через граф не пускаю: FigureIdentifier считает, что точки уже идут в порядке обхода.
+     */
+    private static String sweepLine(List<Point> points, List<Edge> edges) {
+        boolean valid = edges.stream().allMatch(e -> e.getFrom() >= 0 && e.getFrom() < points.size()
+                && e.getTo() >= 0 && e.getTo() < points.size());
+        int n = points.size();
+        boolean drawnCycle = valid && n > 0 && edges.stream()
+                .allMatch(e -> Math.floorMod(e.getTo() - e.getFrom(), n) == 1 || Math.floorMod(e.getFrom() - e.getTo(), n) == 1);
+        if (drawnCycle) {
+            FigureGraph graph = FigureGraph.of(points, edges);
+            boolean allDegreeTwo = IntStream.range(0, n).allMatch(v -> graph.degree(v) == 2);
+            if (graph.componentCount() == 1 && allDegreeTwo) {
+                return GraphClassifier.classify(graph).getComponentTypes().get(0);
+            }
+        }
+
+        return FigureIdentifier.identifyFigure(points, () -> {
+            // Как и FigureIdentifier, на рёбрах с чужими индексами падаю только здесь
+            if (!valid) throw new IndexOutOfBoundsException("Ребро ссылается на несуществующую точку");
+            int[] xs = new int[points.size()], ys = new int[points.size()];
+            for (int i = 0; i < points.size(); i++) {
+                xs[i] = points.get(i).getX();
+                ys[i] = points.get(i).getY();
+            }
+            int[] from = edges.stream().mapToInt(Edge::getFrom).toArray();
+            int[] to = edges.stream().mapToInt(Edge::getTo).toArray();
+            return SegmentSweep.hasCrossing(xs, ys, from, to, IntStream.range(0, edges.size()).toArray());
+        });
+    }
+
+    private static boolean agree(Case c, BiFunction<List<Point>, List<Edge>, String> engine) {
+        return outcome(c, FigureIdentifier::identifyFigure).equals(outcome(c, engine));
+    }
+
+    /**
+     * Результат вызова: строка с типом фигуры или категория исключения
+     */
+    private static String outcome(Case c, BiFunction<List<Point>, List<Edge>, String> engine) {
+        try {
+            return engine.apply(copy(c.points), c.edges);
+        } catch (IndexOutOfBoundsException e) {
+            return "<index out of bounds>";
+        } catch (RuntimeException e) {
+            return "<" + e.getClass().getSimpleName() + ">";
+        }
+    }
+
+    // ---------- Генерация ----------
+
+    private static Case generate(SplittableRandom random) {
+        List<Point> points = switch (random.nextInt(7)) {
+            case 0 -> gridPoints(random, 5);
+            case 1 -> withDuplicates(random, gridPoints(random, 5));
+            case 2 -> colinearPoints(random);
+            case 3 -> withTouchingPoint(random);
+            case 4 -> gridPoints(random, 1000);
+            // Весь допустимый диапазон: произведения разностей здесь давно не помещаются в int
+            case 5 -> gridPoints(random, SegmentSweep.MAX_COORD);
+            // Маленькие фигуры, растянутые до огромных: сохраняют прямые углы, касания и точки на одной прямой
+            default -> scaled(random, switch (random.nextInt(3)) {
+                case 0 -> gridPoints(random, 5);
+                case 1 -> colinearPoints(random);
+                default -> withTouchingPoint(random);
+            });
+        };
+        List<Edge> edges = random.nextBoolean() ? cycleEdges(points.size()) : randomEdges(random, points.size());
+        return new Case(points, edges);
+    }
+
+    private static List<Point> gridPoints(SplittableRandom random, int bound) {
+        int n = random.nextInt(1, 9);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) points.add(new Point(random.nextInt(-bound, bound + 1), random.nextInt(-bound, bound + 1)));
+        return points;
+    }
+
+    /**
+     * Умножаю координаты на общий множитель; исходные лежат в пределах ±16, так что результат не выходит за MAX_COORD
+     */
+    private static List<Point> scaled(SplittableRandom random, List<Point> points) {
+        int factor = random.nextInt(1, SegmentSweep.MAX_COORD / 16 + 1);
+        List<Point> result = new ArrayList<>();
+        for (Point p : points) result.add(new Point(p.getX() * factor, p.getY() * factor));
+        return result;
+    }
+
+    private static List<Point> withDuplicates(SplittableRandom random, List<Point> points) {
+        int copies = random.nextInt(1, 4);
+        for (int i = 0; i < copies; i++) {
+            Point p = points.get(random.nextInt(points.size()));
+            points.add(random.nextInt(points.size() + 1), new Point(p.getX(), p.getY()));
+        }
+        return points;
+    }
+
+    private static List<Point> colinearPoints(SplittableRandom random) {
+        int x0 = random.nextInt(-5, 6), y0 = random.nextInt(-5, 6);
+        int dx = random.nextInt(-2, 3), dy = random.nextInt(-2, 3);
+        int n = random.nextInt(1, 7);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int k = random.nextInt(-3, 4);
+            points.add(new Point(x0 + k * dx, y0 + k * dy));
+        }
+        // Иногда добавляю одну точку вне прямой
+        if (random.nextBoolean()) points.add(random.nextInt(points.size() + 1), new Point(random.nextInt(-5, 6), random.nextInt(-5, 6)));
+        return points;
+    }
+
+    private static List<Point> withTouchingPoint(SplittableRandom random) {
+        List<Point> points = gridPoints(random, 5);
+        Point a = points.get(random.nextInt(points.size()));
+        int dx = 2 * random.nextInt(-2, 3), dy = 2 * random.nextInt(-2, 3);
+        Point b = new Point(a.getX() + dx, a.getY() + dy);
+        // Точка ровно посередине отрезка a-b касается его
+        Point middle = new Point(a.getX() + dx / 2, a.getY() + dy / 2);
+        points.add(random.nextInt(points.size() + 1), b);
+        points.add(random.nextInt(points.size() + 1), middle);
+        return points;
+    }
+
+    /**
+     * Рёбра как в GridService: путь и замыкание при трёх и более точках
+     */
+    private static List<Edge> cycleEdges(int n) {
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < n - 1; i++) edges.add(new Edge(i, i + 1));
+        if (n >= 3) edges.add(new Edge(n - 1, 0));
+        return edges;
+    }
+
+    private static List<Edge> randomEdges(SplittableRandom random, int n) {
+        int m = random.nextInt(n + 3);
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < m; i++) edges.add(new Edge(random.nextInt(n), random.nextInt(n)));
+        return edges;
+    }
+
+    // ---------- Сжатие контрпримера ----------
+
+    /**
+     * Жадно упрощаю случай, пока расхождение сохраняется:
+     * убираю точки и рёбра, затем двигаю координаты к нулю
+     */
+    private static Case shrink(Case c, BiFunction<List<Point>, List<Edge>, String> engine) {
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (Case candidate : candidates(c)) {
+                if (!agree(candidate, engine)) {
+                    c = candidate;
+                    progress = true;
+                    break;
+                }
+            }
+        }
+        return c;
+    }
+
+    private static List<Case> candidates(Case c) {
+        List<Case> result = new ArrayList<>();
+
+        for (int i = 0; i < c.points.size(); i++) {
+            List<Point> points = copy(c.points);
+            points.remove(i);
+            List<Edge> edges = new ArrayList<>();
+            for (Edge e : c.edges) {
+                if (e.getFrom() == i || e.getTo() == i) continue;
+                edges.add(new Edge(e.getFrom() > i ? e.getFrom() - 1 : e.getFrom(), e.getTo() > i ? e.getTo() - 1 : e.getTo()));
+            }
+            result.add(new Case(points, edges));
+        }
+
+        for (int i = 0; i < c.edges.size(); i++) {
+            List<Edge> edges = new ArrayList<>(c.edges);
+            edges.remove(i);
+            result.add(new Case(c.points, edges));
+        }
+
+        for (int i = 0; i < c.points.size(); i++) {
+            Point p = c.points.get(i);
+            for (Point moved : List.of(new Point(p.getX() / 2, p.getY()), new Point(p.getX(), p.getY() / 2),
+                    new Point(p.getX() - Integer.signum(p.getX()), p.getY()),
+                    new Point(p.getX(), p.getY() - Integer.signum(p.getY())))) {
+                if (moved.equals(p)) continue;
+                List<Point> points = copy(c.points);
+                points.set(i, moved);
+                result.add(new Case(points, c.edges));
+            }
+        }
+        return result;
+    }
+
+    private static List<Point> copy(List<Point> points) {
+        List<Point> result = new ArrayList<>();
+        for (Point p : points) result.add(new Point(p.getX(), p.getY()));
+        return result;
+    }
+
+    private static String edgesToString(List<Edge> edges) {
+        StringBuilder sb = new StringBuilder("[");
+        for (Edge e : edges) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(e.getFrom()).append("->").append(e.getTo());
+        }
+        return sb.append("]").toString();
+    }
+
+    private record Case(List<Point> points, List<Edge> edges) {}
+}
@@ -0,0 +1,113 @@
+package com.springliviu.ivantask.logic;
+
+import com.springliviu.ivantask.model.Point;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Метрики на фигурах, посчитанных вручную, включая вырожденные и огромные координаты
+ */
+class FigureMetricsTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void rightTriangle() {
+        FigureMetrics.Result r = FigureMetrics.compute(List.of(List.of(new Point(0, 0), new Point(3, 0), new Point(0, 4))));
+
+        assertEquals(6, r.getArea()[0], DELTA);
+        assertEquals(12, r.getPerimeter()[0], DELTA);
+        assertEquals(1, r.getCentroidX()[0], DELTA);
+        assertEquals(4 / 3.0, r.getCentroidY()[0], DELTA);
+        assertEquals(Math.atan2(3, 4), r.getMinAngle()[0], DELTA);
+        assertEquals(Math.PI / 2, r.getMaxAngle()[0], DELTA);
+    }
+
+    @Test
+    void squareInBatchWithOtherFigures() {
+        FigureMetrics.Result r = FigureMetrics.compute(List.of(
+                List.of(new Point(5, 5)),
+                List.of(new Point(0, 0), new Point(0, 2), new Point(2, 2), new Point(2, 0)),
+                List.of(new Point(1, 1), new Point(4, 5))));
+
+        assertEquals(3, r.size());
+        assertEquals(4, r.getArea()[1], DELTA);
+        assertEquals(8, r.getPerimeter()[1], DELTA);
+        assertEquals(1, r.getCentroidX()[1], DELTA);
+        assertEquals(1, r.getCentroidY()[1], DELTA);
+        assertEquals(Math.PI / 2, r.getMinAngle()[1], DELTA);
+        assertEquals(Math.PI / 2, r.getMaxAngle()[1], DELTA);
+    }
+
+    @Test
+    void onePointAndSegment() {
+        FigureMetrics.Result r = FigureMetrics.compute(List.of(
+                List.of(new Point(5, -3)),
+                List.of(new Point(1, 1), new Point(4, 5))));
+
+        assertEquals(0, r.getArea()[0], DELTA);
+        assertEquals(0, r.getPerimeter()[0], DELTA);
+        assertEquals(5, r.getCentroidX()[0], DELTA);
+        assertEquals(-3, r.getCentroidY()[0], DELTA);
+        assertEquals(Double.NaN, r.getMinAngle()[0]);
+
+        // Отрезок не замыкается: периметр — одна его длина
+        assertEquals(0, r.getArea()[1], DELTA);
+        assertEquals(5, r.getPerimeter()[1], DELTA);
+        assertEquals(2.5, r.getCentroidX()[1], DELTA);
+        assertEquals(3, r.getCentroidY()[1], DELTA);
+        assertEquals(Double.NaN, r.getMaxAngle()[1]);
+    }
+
+    @Test
+    void degenerateFigures() {
+        FigureMetrics.Result r = FigureMetrics.compute(
+                new int[]{0, 1, 2, 7, 7, 7}, new int[]{0, 1, 2, 7, 7, 7}, new int[]{0, 0, 3, 6});
+
+        // Пустая фигура
+        assertEquals(0, r.getArea()[0], DELTA);
+        assertEquals(0, r.getCentroidX()[0], DELTA);
+        assertEquals(Double.NaN, r.getMinAngle()[0]);
+
+        // Три точки на одной прямой: площадь 0, туда-обратно, углы 0 и 180°
+        assertEquals(0, r.getArea()[1], DELTA);
+        assertEquals(4 * Math.sqrt(2), r.getPerimeter()[1], DELTA);
+        assertEquals(0, r.getMinAngle()[1], DELTA);
+        assertEquals(Math.PI, r.getMaxAngle()[1], DELTA);
+
+        // Три совпадающие точки: всё нулевое
+        assertEquals(0, r.getArea()[2], DELTA);
+        assertEquals(0, r.getPerimeter()[2], DELTA);
+        assertEquals(7, r.getCentroidY()[2], DELTA);
+    }
+
+    @Test
+    void largeCoordinatesDoNotOverflow() {
+        // Разности по 3e9 не помещаются в int, а удвоенная площадь 9e18 ещё помещается в long
+        int max = 1_500_000_000, min = -1_500_000_000;
+        FigureMetrics.Result r = FigureMetrics.compute(new int[]{min, max, min}, new int[]{min, min, max}, new int[]{0, 3});
+
+        double side = (double) max - min;
+        assertEquals(side * side / 2, r.getArea()[0], side * side * DELTA);
+        assertEquals(side * (2 + Math.sqrt(2)), r.getPerimeter()[0], side * DELTA);
+        assertEquals(Math.PI / 4, r.getMinAngle()[0], DELTA);
+        assertEquals(Math.PI / 2, r.getMaxAngle()[0], DELTA);
+    }
+
+    @Test
+    void rejectsBadOffsets() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FigureMetrics.compute(new int[]{0, 1}, new int[]{0, 1}, new int[]{0, 1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> FigureMetrics.compute(new int[]{0, 1}, new int[]{0}, new int[]{0, 1}));
+        // Средняя граница за пределами буфера
+        assertThrows(IllegalArgumentException.class,
+                () -> FigureMetrics.compute(new int[]{0, 1, 2}, new int[]{0, 1, 2}, new int[]{0, 10, 3}));
+        assertThrows(IllegalArgumentException.class,
+                () -> FigureMetrics.compute(new int[]{0, 1, 2}, new int[]{0, 1, 2}, new int[]{0, -1, 3}));
+    }
+}
@@ -0,0 +1,169 @@
+package com.springliviu.ivantask.logic;
+
+import com.springliviu.ivantask.model.Edge;
+import com.springliviu.ivantask.model.Point;
+
+import java.util.List;
+
+/**
+ * Эталонный классификатор для дифференциального теста.
+ * <p>
+ * Повторяет шаги {@link FigureIdentifier#identifyFigure}, но написан независимо:
+ * координаты лежат в {@code int[]}, вся геометрия считается точно в {@code long},
+ * а треугольники сравниваются по квадратам длин без EPSILON.
+ * Индексы рёбер, как и в оригинале, относятся к исходному списку точек.
+ */
+final class ReferenceFigureClassifier {
+
+    private ReferenceFigureClassifier() {}
+
+    static String identifyFigure(List<Point> points, List<Edge> edges) {
+        int[] ox = new int[points.size()];
+        int[] oy = new int[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            ox[i] = points.get(i).getX();
+            oy[i] = points.get(i).getY();
+        }
+
+        int[] xs = new int[points.size()];
+        int[] ys = new int[points.size()];
+        int n = 0;
+
+        // Дубликаты: оставляю первое вхождение
+        for (Point p : points) {
+            boolean seen = false;
+            for (int k = 0; k < n && !seen; k++) seen = xs[k] == p.getX() && ys[k] == p.getY();
+            if (!seen) {
+                xs[n] = p.getX();
+                ys[n] = p.getY();
+                n++;
+            }
+        }
+
+        // Промежуточные точки: соседей беру из списка до удаления
+        if (n >= 3) {
+            int[] fx = new int[n];
+            int[] fy = new int[n];
+            int m = 0;
+            for (int i = 0; i < n; i++) {
+                int prev = (i - 1 + n) % n, next = (i + 1) % n;
+                if (cross(xs[prev], ys[prev], xs[i], ys[i], xs[next], ys[next]) != 0) {
+                    fx[m] = xs[i];
+                    fy[m] = ys[i];
+                    m++;
+                }
+            }
+            xs = fx;
+            ys = fy;
+            n = m;
+        }
+
+        if (n == 1) return "точка";
+        if (n == 2) return "отрезок";
+        if (allColinear(xs, ys, n)) return "фрагмент";
+
+        if (hasSelfIntersections(ox, oy, edges)) {
+            return "фигура с самопересечениями: " + nameBySides(n);
+        }
+
+        return switch (n) {
+            case 3 -> "треугольник: " + classifyTriangle(xs, ys);
+            case 4 -> "четырёхугольник: четырёхугольник";
+            default -> nameBySides(n);
+        };
+    }
+
+    private static long cross(long ax, long ay, long bx, long by, long cx, long cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+
+    private static boolean allColinear(int[] xs, int[] ys, int n) {
+        for (int i = 2; i < n; i++) {
+            if (cross(xs[0], ys[0], xs[1], ys[1], xs[i], ys[i]) != 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean hasSelfIntersections(int[] xs, int[] ys, List<Edge> edges) {
+        int n = xs.length, m = edges.size();
+        for (int i = 0; i < m; i++) {
+            Edge e1 = edges.get(i);
+            int a1 = checkIndex(e1.getFrom(), n), a2 = checkIndex(e1.getTo(), n);
+
+            for (int j = i + 1; j < m; j++) {
+                Edge e2 = edges.get(j);
+                int b1 = checkIndex(e2.getFrom(), n), b2 = checkIndex(e2.getTo(), n);
+                if (shareMoreThanEnd(xs, ys, a1, a2, b1, b2)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static int checkIndex(int index, int n) {
+        if (index < 0 || index >= n) throw new IndexOutOfBoundsException(index);
+        return index;
+    }
+
+    /**
+     * Есть ли у отрезков общая точка, отличная от общего конца.
+     * Вырожденные отрезки и два одинаковых отрезка пересечением не считаю.
+     */
+    private static boolean shareMoreThanEnd(int[] xs, int[] ys, int a, int b, int c, int d) {
+        if (same(xs, ys, a, b) || same(xs, ys, c, d)) return false;
+        if ((same(xs, ys, a, c) && same(xs, ys, b, d)) || (same(xs, ys, a, d) && same(xs, ys, b, c))) return false;
+
+        long o1 = Long.signum(cross(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]));
+        long o2 = Long.signum(cross(xs[a], ys[a], xs[b], ys[b], xs[d], ys[d]));
+        long o3 = Long.signum(cross(xs[c], ys[c], xs[d], ys[d], xs[a], ys[a]));
+        long o4 = Long.signum(cross(xs[c], ys[c], xs[d], ys[d], xs[b], ys[b]));
+
+        if (o1 == 0 && o2 == 0) {
+            // На одной прямой: общая часть длиннее точки, если на обоих отрезках лежат
+            // хотя бы две разные точки из четырёх концов
+            int[] ends = {a, b, c, d};
+            int shared = 0;
+            for (int i = 0; i < ends.length; i++) {
+                boolean repeated = false;
+                for (int j = 0; j < i; j++) repeated |= same(xs, ys, ends[i], ends[j]);
+                if (!repeated && inBox(xs, ys, a, b, ends[i]) && inBox(xs, ys, c, d, ends[i])) shared++;
+            }
+            return shared >= 2;
+        }
+        if (o1 * o2 > 0 || o3 * o4 > 0) return false;
+        return !(same(xs, ys, a, c) || same(xs, ys, a, d) || same(xs, ys, b, c) || same(xs, ys, b, d));
+    }
+
+    private static boolean inBox(int[] xs, int[] ys, int a, int b, int p) {
+        return Math.min(xs[a], xs[b]) <= xs[p] && xs[p] <= Math.max(xs[a], xs[b])
+                && Math.min(ys[a], ys[b]) <= ys[p] && ys[p] <= Math.max(ys[a], ys[b]);
+    }
+
+    private static boolean same(int[] xs, int[] ys, int i, int j) {
+        return xs[i] == xs[j] && ys[i] == ys[j];
+    }
+
+    private static String classifyTriangle(int[] xs, int[] ys) {
+        long a = squaredLength(xs, ys, 0, 1);
+        long b = squaredLength(xs, ys, 1, 2);
+        long c = squaredLength(xs, ys, 2, 0);
+
+        if (a + b == c || a + c == b || b + c == a) return "прямоугольный";
+        if (a == b || b == c || a == c) return "равнобедренный";
+        return "разносторонний";
+    }
+
+    private static long squaredLength(int[] xs, int[] ys, int i, int j) {
+        long dx = (long) xs[i] - xs[j], dy = (long) ys[i] - ys[j];
+        return dx * dx + dy * dy;
+    }
+
+    private static String nameBySides(int n) {
+        return switch (n) {
+            case 3 -> "треугольник";
+            case 4 -> "четырёхугольник";
+            case 5 -> "пятиугольник";
+            case 6 -> "шестиугольник";
+            default -> n + "-угольник";
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.springliviu.ivantask.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сверяю заметающую прямую с попарной проверкой на плотных маленьких сетках,
+ * где много вертикалей, наложений и касаний концами
+ */
+class SegmentSweepTest {
+
+    private static final int CASES = 200_000;
+
+    @Test
+    void matchesPairwiseCheck() {
+        SplittableRandom random = new SplittableRandom(20261018L);
+        for (int i = 0; i < CASES; i++) {
+            int n = random.nextInt(2, 12), bound = random.nextInt(2, 6);
+            int[] xs = new int[n], ys = new int[n];
+            for (int v = 0; v < n; v++) {
+                xs[v] = random.nextInt(-bound, bound + 1);
+                ys[v] = random.nextInt(-bound, bound + 1);
+            }
+
+            // Половину случаев строю без пересечений, чтобы проверять и отрицательный ответ
+            boolean planar = random.nextBoolean();
+            int m = random.nextInt(1, 15);
+            int[] from = new int[m], to = new int[m];
+            int count = 0;
+            for (int attempt = 0; attempt < 100 && count < m; attempt++) {
+                int a = random.nextInt(n), b = random.nextInt(n);
+                boolean ok = true;
+                for (int e = 0; e < count && ok && planar; e++) {
+                    ok = !crossesPairwise(xs, ys, a, b, from[e], to[e]);
+                }
+                if (ok) {
+                    from[count] = a;
+                    to[count] = b;
+                    count++;
+                }
+            }
+            from = Arrays.copyOf(from, count);
+            to = Arrays.copyOf(to, count);
+            int[] edgeIds = new int[count];
+            Arrays.setAll(edgeIds, e -> e);
+
+            boolean expected = false;
+            for (int e = 0; e < count && !expected; e++) {
+                for (int f = e + 1; f < count && !expected; f++) {
+                    expected = crossesPairwise(xs, ys, from[e], to[e], from[f], to[f]);
+                }
+            }
+            assertEquals(expected, SegmentSweep.hasCrossing(xs, ys, from, to, edgeIds),
+                    () -> "case " + Arrays.toString(xs) + " " + Arrays.toString(ys));
+        }
+    }
+
+    /**
+     * Пересекаются ли рёбра a-b и c-d где-то кроме общего конца
+     */
+    private static boolean crossesPairwise(int[] xs, int[] ys, int a, int b, int c, int d) {
+        if (same(xs, ys, a, b) || same(xs, ys, c, d)) return false;
+        if ((same(xs, ys, a, c) && same(xs, ys, b, d)) || (same(xs, ys, a, d) && same(xs, ys, b, c))) return false;
+
+        int o1 = orientation(xs, ys, a, b, c), o2 = orientation(xs, ys, a, b, d);
+        int o3 = orientation(xs, ys, c, d, a), o4 = orientation(xs, ys, c, d, b);
+        if (o1 == 0 && o2 == 0) {
+            // На одной прямой: считаю общие концы, лежащие на обоих отрезках
+            int shared = 0;
+            int[] ends = {a, b, c, d};
+            for (int i = 0; i < ends.length; i++) {
+                boolean duplicate = false;
+                for (int j = 0; j < i; j++) duplicate |= same(xs, ys, ends[i], ends[j]);
+                if (!duplicate && onSegment(xs, ys, a, b, ends[i]) && onSegment(xs, ys, c, d, ends[i])) shared++;
+            }
+            return shared > 1;
+        }
+        if (o1 * o2 > 0 || o3 * o4 > 0) return false;
+        return !(same(xs, ys, a, c) || same(xs, ys, a, d) || same(xs, ys, b, c) || same(xs, ys, b, d));
+    }
+
+    private static boolean onSegment(int[] xs, int[] ys, int a, int b, int p) {
+        return Math.min(xs[a], xs[b]) <= xs[p] && xs[p] <= Math.max(xs[a], xs[b])
+                && Math.min(ys[a], ys[b]) <= ys[p] && ys[p] <= Math.max(ys[a], ys[b]);
+    }
+
+    private static boolean same(int[] xs, int[] ys, int a, int b) {
+        return xs[a] == xs[b] && ys[a] == ys[b];
+    }
+
+    private static int orientation(int[] xs, int[] ys, int a, int b, int c) {
+        return Integer.signum((xs[b] - xs[a]) * (ys[c] - ys[a]) - (ys[b] - ys[a]) * (xs[c] - xs[a]));
+    }
+}
@@ -0,0 +1,65 @@
+package com.springliviu.ivantask.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Запись выгружается через Actuator, когда jfr открыт явно, и не содержит окружения процесса
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gridmagic.warmup.enabled=false",
+        "gridmagic.profiling.jfr.enabled=true",
+        "management.endpoints.web.exposure.include=health,jfr"})
+// Закрываю контекст вместе с записью: иначе идущая JFR-запись включит события в соседних тестах
+@DirtiesContext
+class JfrEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void dumpsRecordingWithoutProcessEnvironment() throws Exception {
+        HttpResponse<byte[]> response = get("/actuator/jfr");
+        assertEquals(200, response.statusCode());
+
+        Path file = Files.createTempFile("grid-magic-test-", ".jfr");
+        try {
+            Files.write(file, response.body());
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertFalse(events.isEmpty());
+            for (RecordedEvent event : events) {
+                assertFalse(JfrRecorder.SENSITIVE_EVENTS.contains(event.getEventType().getName()),
+                        event.getEventType().getName());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void oldDebugPathIsGone() throws Exception {
+        assertEquals(404, get("/api/debug/jfr").statusCode());
+    }
+
+    private HttpResponse<byte[]> get(String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,65 @@
+package com.springliviu.ivantask.profiling;
+
+import com.springliviu.ivantask.logic.FigureIdentifier;
+import com.springliviu.ivantask.model.Point;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageProfilerTest {
+
+    @AfterEach
+    void reset() {
+        StageProfiler.setBreakdownEnabled(false);
+        StageProfiler.close();
+    }
+
+    @Test
+    void nothingIsAllocatedWhenDisabled() {
+        assertNull(StageProfiler.begin(Stage.SAMPLING));
+        // Контекст без разбивки и без записи тоже ничего не замеряет
+        StageProfiler.setBreakdownEnabled(true);
+        assertNull(StageProfiler.begin(Stage.SAMPLING));
+    }
+
+    @Test
+    void runningJfrRecordingEnablesEvents() {
+        try (Recording recording = new Recording()) {
+            recording.start();
+            assertNotNull(StageProfiler.begin(Stage.SAMPLING));
+            recording.stop();
+            assertNull(StageProfiler.begin(Stage.SAMPLING));
+        }
+    }
+
+    @Test
+    void stageIsClosedWhenItThrows() {
+        StageProfiler.setBreakdownEnabled(true);
+        StageProfiler.open(true);
+        assertThrows(IllegalStateException.class, () -> {
+            try (StageEvent stage = StageProfiler.begin(Stage.SELF_INTERSECTIONS)) {
+                busyWait();
+                throw new IllegalStateException();
+            }
+        });
+        assertTrue(StageProfiler.close()[Stage.SELF_INTERSECTIONS.ordinal()] > 0);
+    }
+
+    @Test
+    void earlyReturnsAreCountedAsClassification() {
+        StageProfiler.setBreakdownEnabled(true);
+        StageProfiler.open(true);
+        assertEquals("фрагмент", FigureIdentifier.identifyFigure(
+                List.of(new Point(0, 0), new Point(1, 1), new Point(3, 3)), List.of()));
+        assertTrue(StageProfiler.close()[Stage.CLASSIFICATION.ordinal()] > 0);
+    }
+
+    private static void busyWait() {
+        long until = System.nanoTime() + 100_000;
+        while (System.nanoTime() < until) Thread.onSpinWait();
+    }
+}
@@ -0,0 +1,87 @@
+package com.springliviu.ivantask.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdConcurrencyLimiterTest {
+
+    private static final long TARGET = 50;
+    private static final long FAST = 10;
+    private static final long SLOW = 100;
+
+    @Test
+    void rejectsAboveLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, TARGET, 0.5);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void increasesOnlyWhenLimitIsUsed() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 100, TARGET, 0.5);
+
+        // Один запрос из десяти — лимит не используется, расти незачем
+        limiter.tryAcquire();
+        limiter.release(FAST);
+        assertEquals(10, limiter.getLimit());
+
+        for (int i = 0; i < 8; i++) limiter.tryAcquire();
+        limiter.release(FAST);
+        assertEquals(11, limiter.getLimit());
+
+        // Остальные ответы того же окна лимит уже не двигают
+        for (int i = 0; i < 7; i++) limiter.release(FAST);
+        assertEquals(11, limiter.getLimit());
+    }
+
+    @Test
+    void increaseIsAdditivePerWindow() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 100, TARGET, 0.5);
+        for (int window = 0; window < 3; window++) {
+            int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++) assertTrue(limiter.tryAcquire());
+            for (int i = 0; i < limit; i++) limiter.release(FAST);
+        }
+        // Три полных окна быстрых ответов — плюс три, а не удвоение
+        assertEquals(13, limiter.getLimit());
+    }
+
+    @Test
+    void increaseStopsAtMaxLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 5, TARGET, 0.5);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 4; i++) limiter.tryAcquire();
+            for (int i = 0; i < 4; i++) limiter.release(FAST);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void burstOfSlowResponsesBacksOffOnce() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(32, 4, 256, TARGET, 0.9);
+        for (int i = 0; i < 32; i++) assertTrue(limiter.tryAcquire());
+        for (int i = 0; i < 32; i++) limiter.release(SLOW);
+        assertEquals(28, limiter.getLimit());
+
+        // Следующее окно медленных ответов снижает лимит ещё раз
+        for (int i = 0; i < 28; i++) limiter.tryAcquire();
+        for (int i = 0; i < 28; i++) limiter.release(SLOW);
+        assertEquals(25, limiter.getLimit());
+    }
+
+    @Test
+    void backoffStopsAtMinLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 3, 10, TARGET, 0.5);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,67 @@
+package com.springliviu.ivantask.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Всплеск, восстановление и ограничение карты клиентов; время подставляю вручную
+ */
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private final long start = System.nanoTime();
+
+    @Test
+    void allowsBurstThenRejectsWithWait() {
+        // 10 в секунду, всплеск 5: интервал 100 мс
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 5, 100);
+        for (int i = 0; i < 5; i++) assertEquals(0, limiter.tryAcquire("a", start));
+
+        long wait = limiter.tryAcquire("a", start);
+        assertEquals(SECOND / 10, wait);
+        // Отказ токен не тратит
+        assertEquals(SECOND / 10, limiter.tryAcquire("a", start));
+        // Другой клиент со своей корзиной
+        assertEquals(0, limiter.tryAcquire("b", start));
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 5, 100);
+        for (int i = 0; i < 5; i++) limiter.tryAcquire("a", start);
+
+        assertEquals(0, limiter.tryAcquire("a", start + SECOND / 10));
+        assertTrue(limiter.tryAcquire("a", start + SECOND / 10) > 0);
+
+        // За полсекунды простоя корзина снова полная, но не больше ёмкости
+        long later = start + SECOND;
+        for (int i = 0; i < 5; i++) assertEquals(0, limiter.tryAcquire("a", later));
+        assertTrue(limiter.tryAcquire("a", later) > 0);
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertEquals(1, TokenBucketRateLimiter.retryAfterSeconds(1));
+        assertEquals(1, TokenBucketRateLimiter.retryAfterSeconds(SECOND / 10));
+        assertEquals(1, TokenBucketRateLimiter.retryAfterSeconds(SECOND));
+        assertEquals(2, TokenBucketRateLimiter.retryAfterSeconds(SECOND + 1));
+    }
+
+    @Test
+    void mapStaysBoundedWhenAllClientsAreActive() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 2, 10);
+        for (int i = 0; i < 1000; i++) limiter.tryAcquire("client-" + i, start);
+        assertEquals(10, limiter.trackedClients());
+
+        // Лишние клиенты делят одну общую корзину на два запроса
+        assertTrue(limiter.tryAcquire("client-2000", start) > 0);
+
+        // Когда корзины восстановились, место освобождается
+        assertEquals(0, limiter.tryAcquire("client-3000", start + 10 * SECOND));
+        assertEquals(1, limiter.trackedClients());
+    }
+}
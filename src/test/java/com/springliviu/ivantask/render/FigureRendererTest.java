@@ -0,0 +1,76 @@
+package com.springliviu.ivantask.render;
+
+import com.springliviu.ivantask.model.ColoredPoint;
+import com.springliviu.ivantask.model.Edge;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Содержимое SVG и корректность PNG на маленьком треугольнике
+ */
+class FigureRendererTest {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private final FigureRenderer renderer = new FigureRenderer(16);
+
+    private final List<ColoredPoint> points = List.of(
+            new ColoredPoint(0, 0, "orange"), new ColoredPoint(3, 0, "red"), new ColoredPoint(0, 4, "<script>"));
+    private final List<Edge> edges = List.of(new Edge(0, 1), new Edge(1, 2), new Edge(2, 0));
+
+    @Test
+    void svgHasBackgroundAndOneLinePerEdge() {
+        String svg = new String(renderer.render(points, edges, FigureRenderer.Format.SVG), StandardCharsets.UTF_8);
+
+        assertTrue(svg.startsWith("<svg "));
+        assertTrue(svg.contains("<rect width=\"600\" height=\"600\" fill=\"#f4f4f4\""));
+
+        // Рёбра — в синей группе, отдельно от линий сетки и осей
+        String figure = svg.substring(svg.indexOf("<g stroke=\"blue\""));
+        figure = figure.substring(0, figure.indexOf("</g>"));
+        assertEquals(edges.size(), count(figure, "<line "));
+        assertTrue(figure.contains("<line x1=\"300\" y1=\"300\" x2=\"480\" y2=\"300\"/>"));
+        assertEquals(points.size(), count(svg, "<circle "));
+    }
+
+    @Test
+    void svgReplacesUnknownColorWithBlack() {
+        String svg = new String(renderer.render(points, edges, FigureRenderer.Format.SVG), StandardCharsets.UTF_8);
+
+        assertTrue(svg.contains("fill=\"orange\""));
+        assertTrue(svg.contains("<circle cx=\"300\" cy=\"60\" r=\"5\" fill=\"black\"/>"));
+        assertFalse(svg.contains("<script>"));
+    }
+
+    @Test
+    void pngIsValidImageOfCanvasSize() throws Exception {
+        byte[] png = renderer.render(points, edges, FigureRenderer.Format.PNG);
+
+        assertArrayEquals(PNG_SIGNATURE, Arrays.copyOf(png, PNG_SIGNATURE.length));
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(600, image.getWidth());
+        assertEquals(600, image.getHeight());
+        // Центр точки (0, 0) закрашен оранжевым как в CSS, а не Color.ORANGE
+        assertEquals(0xffa500, image.getRGB(300, 300) & 0xffffff);
+    }
+
+    @Test
+    void sameFigureIsServedFromCache() {
+        byte[] first = renderer.render(points, edges, FigureRenderer.Format.PNG);
+        assertSame(first, renderer.render(List.copyOf(points), List.copyOf(edges), FigureRenderer.Format.PNG));
+    }
+
+    private static int count(String text, String fragment) {
+        int count = 0;
+        for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + 1)) count++;
+        return count;
+    }
+}
@@ -0,0 +1,55 @@
+package com.springliviu.ivantask.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Попадание в кэш и вытеснение самого давно использованного ключа
+ */
+class RenderCacheTest {
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    void hitReturnsSameBytesWithoutRendering() {
+        RenderCache cache = new RenderCache(4);
+        byte[] first = cache.get("a", render("a"));
+        byte[] second = cache.get("a", render("a"));
+
+        assertSame(first, second);
+        assertEquals(1, renders.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAtMaxEntries() {
+        RenderCache cache = new RenderCache(2);
+        byte[] a = cache.get("a", render("a"));
+        cache.get("b", render("b"));
+        // Обращение к a делает вытесняемым b
+        cache.get("a", render("a"));
+        cache.get("c", render("c"));
+
+        assertEquals(2, cache.size());
+        assertEquals(3, renders.get());
+        assertSame(a, cache.get("a", render("a")));
+        assertEquals(3, renders.get());
+
+        // b вытеснен и рендерится заново
+        cache.get("b", render("b"));
+        assertEquals(4, renders.get());
+        assertEquals(2, cache.size());
+    }
+
+    private Supplier<byte[]> render(String key) {
+        return () -> {
+            renders.incrementAndGet();
+            return key.getBytes();
+        };
+    }
+}
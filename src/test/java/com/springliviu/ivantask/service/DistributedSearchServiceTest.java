@@ -0,0 +1,248 @@
+package com.springliviu.ivantask.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springliviu.ivantask.IvanTaskApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбиение диапазона, первая находка и отмена: координатор против заглушки пира
+ * и настоящий узел на случайном порту, которому отмена приходит по HTTP
+ */
+class DistributedSearchServiceTest {
+
+    private static final String NEVER = "фигуры такого типа не бывает";
+
+    private static ConfigurableApplicationContext peer;
+    private static String peerUrl;
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startPeer() {
+        // Аргументами, а не properties(): значения по умолчанию перекрываются application.properties
+        peer = new SpringApplicationBuilder(IvanTaskApplication.class)
+                .run("--server.port=0", "--gridmagic.warmup.enabled=false", "--gridmagic.search.timeout-ms=30000");
+        peerUrl = "http://localhost:" + ((WebServerApplicationContext) peer).getWebServer().getPort();
+    }
+
+    @AfterAll
+    static void stopPeer() {
+        peer.close();
+    }
+
+    @Test
+    void coordinatorSplitsRangeAndCancelsPeerAfterFirstMatch() throws Exception {
+        AtomicReference<String> peerQuery = new AtomicReference<>();
+        AtomicReference<String> cancelledId = new AtomicReference<>();
+        CountDownLatch cancelReceived = new CountDownLatch(1);
+        CountDownLatch queryReceived = new CountDownLatch(1);
+
+        // Заглушка пира ничего не находит и держит запрос, пока не придёт отмена
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/api/search/local", exchange -> {
+            if (exchange.getRequestMethod().equals("DELETE")) {
+                String path = exchange.getRequestURI().getPath();
+                cancelledId.set(path.substring(path.lastIndexOf('/') + 1));
+                cancelReceived.countDown();
+            } else {
+                peerQuery.set(exchange.getRequestURI().getRawQuery());
+                queryReceived.countDown();
+                try {
+                    cancelReceived.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        stub.start();
+
+        try {
+            DistributedSearchService coordinator = service(List.of("http://localhost:" + stub.getAddress().getPort()), 10_000);
+            Optional<Map<String, Object>> found = coordinator.search("треугольник", 2_000_000);
+
+            assertTrue(found.isPresent());
+            assertTrue(((String) found.get().get("type")).startsWith("треугольник"));
+            assertTrue(cancelReceived.await(2, TimeUnit.SECONDS), "пир не получил отмену");
+            // Координатор мог найти фигуру раньше, чем запрос части дошёл до пира
+            assertTrue(queryReceived.await(2, TimeUnit.SECONDS), "пир не получил свою часть");
+
+            // Пиру досталась вторая половина: сразу за частью координатора и той же длины
+            Map<String, String> query = parseQuery(peerQuery.get());
+            long from = Long.parseLong(query.get("from")), to = Long.parseLong(query.get("to"));
+            long seed = ((Number) found.get().get("seed")).longValue();
+            assertEquals(1_000_000, to - from);
+            assertTrue(seed >= from - 1_000_000 && seed < from, "seed вне части координатора");
+            assertEquals(query.get("id"), cancelledId.get());
+            assertEquals(0, coordinator.activeSearches());
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    @Test
+    void peerStopsWhenCancelled() throws Exception {
+        DistributedSearchService peerService = peer.getBean(DistributedSearchService.class);
+        String id = UUID.randomUUID().toString();
+        CompletableFuture<HttpResponse<String>> part = http.sendAsync(localSearch(id), HttpResponse.BodyHandlers.ofString());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (peerService.activeSearches() == 0 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(1, peerService.activeSearches());
+
+        http.send(HttpRequest.newBuilder(URI.create(peerUrl + "/api/search/local/" + id)).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertEquals(204, part.get(2, TimeUnit.SECONDS).statusCode());
+        assertEquals(0, peerService.activeSearches());
+    }
+
+    @Test
+    void cancelArrivingBeforeSearchIsNotLost() throws Exception {
+        String id = UUID.randomUUID().toString();
+        http.send(HttpRequest.newBuilder(URI.create(peerUrl + "/api/search/local/" + id)).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(localSearch(id), HttpResponse.BodyHandlers.ofString());
+        assertEquals(204, response.statusCode());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "отменённый поиск всё равно перебирал диапазон");
+    }
+
+    @Test
+    void deadlineStopsSearch() {
+        DistributedSearchService service = service(List.of(), 300);
+        long start = System.nanoTime();
+        // Не успел перебрать — это не «не найдено»
+        assertThrows(DistributedSearchService.SearchIncompleteException.class, () -> service.search(NEVER, 10_000_000));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertThrows(DistributedSearchService.SearchIncompleteException.class,
+                () -> service.searchLocal(UUID.randomUUID().toString(), NEVER, 0, 10_000_000));
+
+        // Перебор тоже остановился, а не продолжил работать в фоне
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (service.activeSearches() > 0 && System.nanoTime() < deadline) Thread.onSpinWait();
+        assertEquals(0, service.activeSearches());
+    }
+
+    @Test
+    void failedPeerMakesSearchIncomplete() throws Exception {
+        // Пир перегружен и отвечает 429: его половина не проверена
+        HttpServer stub = stubPeer(429);
+        try {
+            DistributedSearchService coordinator = service(List.of("http://localhost:" + stub.getAddress().getPort()), 10_000);
+            DistributedSearchService.SearchIncompleteException e = assertThrows(
+                    DistributedSearchService.SearchIncompleteException.class, () -> coordinator.search(NEVER, 2_000));
+            assertTrue(e.getMessage().contains("429"), e.getMessage());
+        } finally {
+            stub.stop(0);
+        }
+
+        // Пир, который уже остановлен, тоже не проверил свою часть
+        assertThrows(DistributedSearchService.SearchIncompleteException.class,
+                () -> service(List.of("http://localhost:" + stub.getAddress().getPort()), 10_000).search(NEVER, 2_000));
+    }
+
+    @Test
+    void emptyResultOnlyWhenWholeRangeScanned() throws Exception {
+        HttpServer stub = stubPeer(204);
+        try {
+            DistributedSearchService coordinator = service(List.of("http://localhost:" + stub.getAddress().getPort()), 10_000);
+            assertTrue(coordinator.search(NEVER, 2_000).isEmpty());
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    @Test
+    void incompleteSearchIsReportedOverHttp() throws Exception {
+        HttpServer stub = stubPeer(503);
+        try {
+            ConfigurableApplicationContext coordinator = new SpringApplicationBuilder(IvanTaskApplication.class)
+                    .run("--server.port=0", "--gridmagic.warmup.enabled=false",
+                            "--gridmagic.search.peers=http://localhost:" + stub.getAddress().getPort());
+            try {
+                int port = ((WebServerApplicationContext) coordinator).getWebServer().getPort();
+                HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                + "/api/search?type=" + URLEncoder.encode(NEVER, StandardCharsets.UTF_8) + "&seeds=2000")).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                assertEquals(503, response.statusCode());
+                assertTrue(response.body().contains("\"complete\":false"), response.body());
+            } finally {
+                coordinator.close();
+            }
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    @Test
+    void rejectsOversizedRequests() throws Exception {
+        DistributedSearchService service = service(List.of(), 1_000);
+        assertThrows(IllegalArgumentException.class, () -> service.search("точка", 10_000_001));
+        assertThrows(IllegalArgumentException.class, () -> service.search("точка", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.searchLocal(UUID.randomUUID().toString(), "точка", Long.MIN_VALUE, Long.MAX_VALUE));
+
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                URI.create(peerUrl + "/api/search?type=x&seeds=" + (1L << 52))).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+
+    private static DistributedSearchService service(List<String> peers, long timeoutMs) {
+        return new DistributedSearchService(new GridService(), new ObjectMapper(), peers, 10_000_000, timeoutMs, 4, 2);
+    }
+
+    /**
+     * Пир, который на любую часть поиска отвечает заданным статусом
+     */
+    private static HttpServer stubPeer(int status) throws Exception {
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/api/search/local", exchange -> {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        stub.start();
+        return stub;
+    }
+
+    private static HttpRequest localSearch(String id) {
+        return HttpRequest.newBuilder(URI.create(peerUrl + "/api/search/local?id=" + id
+                + "&type=" + URLEncoder.encode(NEVER, StandardCharsets.UTF_8) + "&from=0&to=10000000")).GET().build();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> result = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            result.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package com.springliviu.ivantask.warmup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarmupRunnerTest {
+
+    @Test
+    void stillImprovingIsNotStable() {
+        // Время итерации падает вдвое: JIT ещё работает
+        double[] costs = {100, 95, 90, 85, 80, 50, 48, 47, 45, 44};
+        assertFalse(WarmupRunner.isStable(costs, costs.length, 5, 0.1));
+    }
+
+    @Test
+    void noisyPlateauIsStable() {
+        // Соседние пачки скачут на 30%, но медианы почти равны
+        double[] costs = {40, 52, 41, 39, 55, 53, 40, 38, 42, 41};
+        assertTrue(WarmupRunner.isStable(costs, costs.length, 5, 0.1));
+    }
+
+    @Test
+    void readsRingBufferInOrder() {
+        // Записано 13 пачек: последние пять — индексы 8, 9, 0, 1, 2, предыдущие — 3..7
+        double[] costs = {10, 10, 10, 100, 100, 100, 100, 100, 10, 10};
+        assertFalse(WarmupRunner.isStable(costs, 13, 5, 0.1));
+        assertTrue(WarmupRunner.isStable(costs, 18, 5, 0.1));
+    }
+}